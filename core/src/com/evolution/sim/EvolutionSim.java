@@ -3,13 +3,39 @@ package com.evolution.sim;
 import com.badlogic.gdx.Game;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.evolution.sim.screens.MapEditorScreen;
+import com.evolution.sim.world.MapSaveService;
 
 public class EvolutionSim extends Game {
+    // Tempo máximo de espera pelas gravações de mapa ao fechar o jogo
+    private static final long SAVE_SHUTDOWN_TIMEOUT_MS = 10000;
+    
+    // Tamanho padrão de um mapa novo, em tiles
+    public static final int DEFAULT_MAP_SIZE = 50;
+    
     public SpriteBatch batch;
+    public MapSaveService mapSaver;
+    
+    // Tamanho dos mapas criados pelas telas (mapas grandes são divididos em chunks, ver WorldMap.create)
+    public final int mapWidth;
+    public final int mapHeight;
+    
+    public EvolutionSim() {
+        this(DEFAULT_MAP_SIZE, DEFAULT_MAP_SIZE);
+    }
+    
+    /**
+     * @param mapWidth Largura dos mapas novos, em tiles
+     * @param mapHeight Altura dos mapas novos, em tiles
+     */
+    public EvolutionSim(int mapWidth, int mapHeight) {
+        this.mapWidth = mapWidth;
+        this.mapHeight = mapHeight;
+    }
     
     @Override
     public void create() {
         batch = new SpriteBatch();
+        mapSaver = new MapSaveService();
         setScreen(new MapEditorScreen(this));
     }
     
@@ -22,5 +48,8 @@ public class EvolutionSim extends Game {
     public void dispose() {
         batch.dispose();
         getScreen().dispose();
+        
+        // Terminar as gravações pendentes antes de sair
+        mapSaver.shutdown(SAVE_SHUTDOWN_TIMEOUT_MS);
     }
 }
@@ -1,25 +1,42 @@
 package com.evolution.sim.entities;
 
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import com.evolution.sim.genetics.Genome;
+import com.evolution.sim.genetics.TraitRegistry;
 import com.evolution.sim.world.WorldMap;
 
 /**
  * Representa um predador que caça outras criaturas, incluindo da mesma espécie
  */
 public class Cannibal extends Predator {
+    // Cor usada na renderização (compartilhada, não alterar)
+    private static final Color COLOR = new Color(0.6f, 0.1f, 0.6f, 1.0f);
+    
     // Atributos específicos dos canibais
     private float cannibalFactor;  // Quanto prefere atacar da mesma espécie vs. presas normais
     
-    public Cannibal(float x, float y, WorldMap worldMap) {
-        super(x, y, worldMap);
+    public Cannibal(float x, float y, WorldMap worldMap, CreatureStore store) {
+        this(x, y, worldMap, store, null);
+    }
+    
+    /**
+     * Construtor para criar filhotes com genoma
+     */
+    public Cannibal(float x, float y, WorldMap worldMap, CreatureStore store, Genome genome) {
+        super(worldMap, store);
+        init(x, y, genome);
+    }
+    
+    @Override
+    protected void setDefaults() {
+        // Valores herdados dos predadores
+        super.setDefaults();
         
         // Configurações específicas para canibais
         this.maxSpeed = 65f;
-        this.size = 7f;
-        this.energy = 120f;
+        setSize(7f);
+        setEnergy(120f);
         this.maxEnergy = 180f;
         this.maxAge = 70f;  // Vida mais curta que predadores normais
         
@@ -27,19 +44,6 @@ public class Cannibal extends Predator {
         this.cannibalFactor = 0.3f;  // 30% de preferência para canibalismo vs. caça normal
     }
     
-    /**
-     * Construtor para criar filhotes com genoma
-     */
-    public Cannibal(float x, float y, WorldMap worldMap, Genome genome) {
-        this(x, y, worldMap);
-        this.genome = genome;
-        
-        // Aplicar modificações genéticas
-        if (genome != null) {
-            applyGenome();
-        }
-    }
-    
     /**
      * Aplica os efeitos do genoma nos atributos
      */
@@ -49,44 +53,33 @@ public class Cannibal extends Predator {
         super.applyGenome();
         
         // Aplicar traços específicos de canibais
-        this.cannibalFactor = 0.3f * (1 + genome.getTraitValue("cannibalism", 0.5f) - 0.25f);
+        this.cannibalFactor = 0.3f * (1 + genome.getTrait(TraitRegistry.CANNIBALISM, 0.5f) - 0.25f);
+    }
+    
+    @Override
+    protected int getPreyMask() {
+        // Canibais caçam presas, predadores e outros canibais
+        return CreatureType.PREY.mask() | CreatureType.PREDATOR.mask() | CreatureType.CANNIBAL.mask();
+    }
+    
+    @Override
+    protected boolean isReadyToReproduce() {
+        // Canibais não respeitam o tempo de espera dos predadores
+        return canReproduce();
+    }
+    
+    @Override
+    protected void onReproduce() {
     }
     
     @Override
     protected Color getColor() {
         // Cor roxa escura para canibais
-        return new Color(0.6f, 0.1f, 0.6f, 1.0f);
+        return COLOR;
     }
     
     @Override
-    public Creature reproduce(Creature partner) {
-        // Verificar se pode reproduzir
-        if (!canReproduce()) {
-            return null;
-        }
-        
-        // Consumir energia para reprodução
-        energy *= 0.7f;
-        
-        // Criar novo genoma
-        Genome childGenome;
-        
-        if (partner != null && partner instanceof Cannibal && partner.canReproduce()) {
-            // Reprodução sexual - misturar genomas
-            Cannibal cannibalPartner = (Cannibal) partner;
-            cannibalPartner.energy *= 0.7f; // Parceiro também gasta energia
-            
-            childGenome = Genome.combine(this.genome, cannibalPartner.genome);
-        } else {
-            // Reprodução assexuada - clonar com mutações
-            childGenome = genome.clone();
-            childGenome.mutate();
-        }
-        
-        // Criar filhote próximo à posição atual
-        float offsetX = MathUtils.random(-20f, 20f);
-        float offsetY = MathUtils.random(-20f, 20f);
-        
-        return new Cannibal(position.x + offsetX, position.y + offsetY, worldMap, childGenome);
+    public CreatureType getType() {
+        return CreatureType.CANNIBAL;
     }
 }
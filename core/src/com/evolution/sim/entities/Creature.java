@@ -4,49 +4,137 @@ import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.RandomXS128;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Pool;
 import com.evolution.sim.genetics.Genome;
 import com.evolution.sim.world.TerrainType;
 import com.evolution.sim.world.WorldMap;
 
 /**
- * Classe base para todas as criaturas do simulador
+ * Classe base para todas as criaturas do simulador.
+ * As instâncias são recicladas pelo CreatureStore: init() reinicializa uma
+ * criatura nova ou reaproveitada, e reset() limpa a instância ao devolvê-la.
  */
-public abstract class Creature {
-    // Posição e movimento
-    protected Vector2 position;
-    protected Vector2 velocity;
+public abstract class Creature implements Pool.Poolable {
+    // Armazenamento SoA: posição, velocidade, tamanho, energia e idade ficam no slot
+    protected final CreatureStore store;
+    int slot;
+    
+    // Movimento
     protected float maxSpeed;
     protected float rotation;
     
     // Atributos básicos
-    protected float size;
-    protected float energy;
     protected float maxEnergy;
-    protected float age;
     protected float maxAge;
     protected boolean alive;
     
+    // Ordinal da espécie (CreatureType), usado em tabelas indexadas por espécie
+    private int species;
+    
+    // Tempo acumulado desde a última execução do comportamento
+    private float behaviorDelta;
+    
+    // Identificador único do indivíduo (não é reaproveitado junto com a instância)
+    private long id;
+    
+    // Espécie emergente atribuída pelo agrupamento genético (-1 = nenhuma)
+    private int cluster = -1;
+    
+    // Muda a cada init(), para detectar referências a instâncias recicladas
+    private int generation;
+    
+    // Última criatura percebida, reutilizada entre as consultas espaçadas pelo orçamento
+    private Creature perceivedTarget;
+    private int perceivedGeneration;
+    
+    // Gerador próprio para o comportamento, que pode rodar em paralelo
+    // (o MathUtils.random é compartilhado e não é seguro entre threads)
+    protected final RandomXS128 random = new RandomXS128();
+    
+    // Vetor reutilizado por getPosition()
+    private final Vector2 position = new Vector2();
+    
     // Genética
     protected Genome genome;
     
     // Referência ao mundo
     protected WorldMap worldMap;
     
-    public Creature(float x, float y, WorldMap worldMap) {
-        this.position = new Vector2(x, y);
-        this.velocity = new Vector2(0, 0);
+    /**
+     * Cria a instância sem inicializá-la; as subclasses devem chamar init()
+     */
+    protected Creature(WorldMap worldMap, CreatureStore store) {
+        this.store = store;
         this.worldMap = worldMap;
+        this.slot = -1;
+    }
+    
+    /**
+     * Inicializa (ou reinicializa, ao sair do pool) a criatura em uma posição
+     * @param x Posição x em pixels
+     * @param y Posição y em pixels
+     * @param genome Genoma da criatura (pode ser null)
+     */
+    public void init(float x, float y, Genome genome) {
+        if (slot < 0) {
+            slot = store.allocate(this);
+        }
+        this.species = getType().ordinal();
+        this.id = store.nextId();
+        this.cluster = -1;
+        this.generation++;
+        this.perceivedTarget = null;
+        this.behaviorDelta = 0f;
         this.alive = true;
         
+        // init() roda na thread da simulação, então pode sortear a semente do gerador global
+        random.setSeed(MathUtils.random.nextLong());
+        setPosition(x, y);
+        setVelocity(0f, 0f);
+        
         // Valores padrão, devem ser sobrescritos nas subclasses
         this.maxSpeed = 50f;
-        this.size = 5f;
-        this.energy = 100f;
+        setSize(5f);
+        setEnergy(100f);
         this.maxEnergy = 100f;
-        this.age = 0f;
+        store.age[slot] = 0f;
         this.maxAge = 100f;
         this.rotation = MathUtils.random(360f);
+        
+        // Configurações específicas da espécie
+        setDefaults();
+        
+        // Aplicar modificações genéticas
+        this.genome = genome;
+        if (genome != null) {
+            applyGenome();
+        }
+        
+        // Contabilizar a nova criatura
+        store.getPopulation().onSpawn(getType());
+    }
+    
+    /**
+     * Define os atributos iniciais específicos da espécie
+     */
+    protected abstract void setDefaults();
+    
+    /**
+     * Aplica os efeitos do genoma nos atributos
+     */
+    protected void applyGenome() {
+        // Sem efeitos genéticos por padrão
+    }
+    
+    /**
+     * Limpa a instância ao devolvê-la ao pool
+     */
+    @Override
+    public void reset() {
+        alive = false;
+        genome = null;
     }
     
     /**
@@ -54,27 +142,43 @@ public abstract class Creature {
      * @param delta Tempo desde o último frame em segundos
      */
     public void update(float delta) {
+        update(delta, true);
+    }
+    
+    /**
+     * Atualiza a criatura, executando o comportamento apenas quando pedido.
+     * O tempo dos ticks sem comportamento é acumulado e entregue à próxima
+     * execução, para que temporizadores e alimentação não percam tempo.
+     * @param delta Tempo desde o último frame
+     * @param think true para executar percepção e decisão neste tick
+     */
+    public void update(float delta, boolean think) {
         if (!alive) return;
         
         // Envelhecer
-        age += delta;
+        float age = store.age[slot] += delta;
         if (age >= maxAge) {
             die();
             return;
         }
         
         // Consumir energia com o tempo
-        energy -= delta * getBasicEnergyConsumption();
+        float energy = store.energy[slot] -= delta * getBasicEnergyConsumption();
         if (energy <= 0) {
             die();
             return;
         }
         
-        // Comportamento específico da subclasse
-        behavior(delta);
+        // Comportamento específico da subclasse (pode ser espaçado pelo escalonador)
+        behaviorDelta += delta;
+        if (think) {
+            behavior(behaviorDelta);
+            behaviorDelta = 0f;
+        }
         
         // Aplicar movimento
-        position.add(velocity.x * delta, velocity.y * delta);
+        store.x[slot] += store.vx[slot] * delta;
+        store.y[slot] += store.vy[slot] * delta;
         
         // Verificar limites do mundo
         checkWorldBounds();
@@ -89,6 +193,15 @@ public abstract class Creature {
      */
     protected abstract void behavior(float delta);
     
+    /**
+     * Aplica efeitos sobre outras criaturas acumulados durante update().
+     * update() pode rodar em paralelo e só deve alterar o próprio estado;
+     * este método é chamado em série, depois que todas as criaturas foram atualizadas.
+     */
+    public void applyDeferredEffects() {
+        // Sem efeitos adiados por padrão
+    }
+    
     /**
      * Desenha a criatura
      * @param batch SpriteBatch para desenho
@@ -107,15 +220,19 @@ public abstract class Creature {
     public void renderShape(ShapeRenderer shapeRenderer) {
         if (!alive) return;
         
+        float x = store.x[slot];
+        float y = store.y[slot];
+        float size = store.size[slot];
+        
         // Desenhar corpo
         Color color = getColor();
         shapeRenderer.setColor(color);
-        shapeRenderer.circle(position.x, position.y, size);
+        shapeRenderer.circle(x, y, size);
         
         // Desenhar direção
-        float dirX = position.x + MathUtils.cosDeg(rotation) * size * 1.5f;
-        float dirY = position.y + MathUtils.sinDeg(rotation) * size * 1.5f;
-        shapeRenderer.line(position.x, position.y, dirX, dirY);
+        float dirX = x + MathUtils.cosDeg(rotation) * size * 1.5f;
+        float dirY = y + MathUtils.sinDeg(rotation) * size * 1.5f;
+        shapeRenderer.line(x, y, dirX, dirY);
     }
     
     /**
@@ -124,13 +241,21 @@ public abstract class Creature {
      */
     protected abstract Color getColor();
     
+    /**
+     * Obtém a cor da criatura empacotada em um float (Color.toFloatBits())
+     * @return Cor empacotada
+     */
+    public float getPackedColor() {
+        return getColor().toFloatBits();
+    }
+    
     /**
      * Calcula o consumo básico de energia por segundo
      * @return Taxa de consumo de energia
      */
     protected float getBasicEnergyConsumption() {
         // Fórmula básica: criaturas maiores consomem mais energia
-        return 0.5f + (size * 0.1f);
+        return 0.5f + (store.size[slot] * 0.1f);
     }
     
     /**
@@ -139,18 +264,24 @@ public abstract class Creature {
      * @param delta Tempo desde o último frame
      */
     protected void moveToward(Vector2 target, float delta) {
-        // Calcular direção
-        Vector2 direction = new Vector2(target).sub(position).nor();
-        
+        moveToward(target.x, target.y, delta);
+    }
+    
+    /**
+     * Movimento em direção a um alvo
+     * @param targetX Posição x do alvo
+     * @param targetY Posição y do alvo
+     * @param delta Tempo desde o último frame
+     */
+    protected void moveToward(float targetX, float targetY, float delta) {
         // Calcular rotação desejada
-        float targetRotation = direction.angleDeg();
+        float targetRotation = MathUtils.atan2(targetY - store.y[slot], targetX - store.x[slot]) * MathUtils.radiansToDegrees;
         
         // Girar gradualmente para a direção
         rotation = MathUtils.lerpAngleDeg(rotation, targetRotation, delta * 2f);
         
         // Mover na direção atual
-        velocity.x = MathUtils.cosDeg(rotation) * maxSpeed;
-        velocity.y = MathUtils.sinDeg(rotation) * maxSpeed;
+        setVelocity(MathUtils.cosDeg(rotation) * maxSpeed, MathUtils.sinDeg(rotation) * maxSpeed);
     }
     
     /**
@@ -159,13 +290,57 @@ public abstract class Creature {
      */
     protected void moveRandomly(float delta) {
         // Mudar direção ocasionalmente
-        if (MathUtils.random() < delta * 0.1f) {
-            rotation += MathUtils.random(-30f, 30f);
+        if (random.nextFloat() < delta * 0.1f) {
+            rotation += random.nextFloat() * 60f - 30f;
         }
         
         // Mover na direção atual
-        velocity.x = MathUtils.cosDeg(rotation) * maxSpeed * 0.5f;
-        velocity.y = MathUtils.sinDeg(rotation) * maxSpeed * 0.5f;
+        setVelocity(MathUtils.cosDeg(rotation) * maxSpeed * 0.5f, MathUtils.sinDeg(rotation) * maxSpeed * 0.5f);
+    }
+    
+    /**
+     * Percebe a criatura viva mais próxima de um conjunto de espécies.
+     * Entre as consultas espaçadas pelo orçamento, reutiliza a última
+     * percepção enquanto ela continuar viva e dentro do alcance (segundo
+     * o estado do início do tick, e não o das criaturas sendo atualizadas).
+     * @param speciesMask Máscara das espécies procuradas (CreatureType.mask())
+     * @param range Alcance de percepção em pixels
+     * @return Criatura percebida ou null
+     */
+    protected Creature perceiveNearest(int speciesMask, float range) {
+        PerceptionService perception = store.getPerception();
+        if (perception == null) {
+            return null;
+        }
+        
+        Creature target = perceivedTarget;
+        if (perception.isQueryDue(slot)) {
+            target = perception.findNearest(this, speciesMask, range);
+        } else if (target != null && (target.generation != perceivedGeneration
+                || !perception.canPerceive(this, target, speciesMask, range))) {
+            // A instância pode ter sido reciclada, ou o alvo morreu ou saiu do alcance
+            target = null;
+        }
+        
+        perceivedTarget = target;
+        perceivedGeneration = target != null ? target.generation : 0;
+        return target;
+    }
+    
+    /**
+     * Posição x de uma criatura percebida, no início do tick
+     * @param target Criatura retornada por perceiveNearest() neste tick
+     */
+    protected float getPerceivedX(Creature target) {
+        return store.getPerception().getX(target.slot);
+    }
+    
+    /**
+     * Posição y de uma criatura percebida, no início do tick
+     * @param target Criatura retornada por perceiveNearest() neste tick
+     */
+    protected float getPerceivedY(Creature target) {
+        return store.getPerception().getY(target.slot);
     }
     
     /**
@@ -176,53 +351,65 @@ public abstract class Creature {
         float mapWidth = worldMap.getWidth() * 32f;  // 32 é o tamanho do tile
         float mapHeight = worldMap.getHeight() * 32f;
         
+        float size = store.size[slot];
+        
         // Limitar posição
-        if (position.x < size) {
-            position.x = size;
-            velocity.x *= -0.5f;
+        if (store.x[slot] < size) {
+            store.x[slot] = size;
+            store.vx[slot] *= -0.5f;
             rotation = 180 - rotation;
-        } else if (position.x > mapWidth - size) {
-            position.x = mapWidth - size;
-            velocity.x *= -0.5f;
+        } else if (store.x[slot] > mapWidth - size) {
+            store.x[slot] = mapWidth - size;
+            store.vx[slot] *= -0.5f;
             rotation = 180 - rotation;
         }
         
-        if (position.y < size) {
-            position.y = size;
-            velocity.y *= -0.5f;
+        if (store.y[slot] < size) {
+            store.y[slot] = size;
+            store.vy[slot] *= -0.5f;
             rotation = 360 - rotation;
-        } else if (position.y > mapHeight - size) {
-            position.y = mapHeight - size;
-            velocity.y *= -0.5f;
+        } else if (store.y[slot] > mapHeight - size) {
+            store.y[slot] = mapHeight - size;
+            store.vy[slot] *= -0.5f;
             rotation = 360 - rotation;
         }
     }
     
+    /**
+     * Coluna do tile sob a criatura, limitada ao mapa
+     */
+    protected int getTileX() {
+        return MathUtils.clamp((int) (store.x[slot] / 32), 0, worldMap.getWidth() - 1); // 32 é o tamanho do tile
+    }
+    
+    /**
+     * Linha do tile sob a criatura, limitada ao mapa
+     */
+    protected int getTileY() {
+        return MathUtils.clamp((int) (store.y[slot] / 32), 0, worldMap.getHeight() - 1);
+    }
+    
     /**
      * Lida com interações entre a criatura e o terreno
      */
     protected void handleTerrainInteraction() {
-        // Converter posição em coordenadas de tile
-        int tileX = (int) (position.x / 32);
-        int tileY = (int) (position.y / 32);
-        
-        // Obter tipo de terreno atual
-        TerrainType terrain = worldMap.getTerrainAt(tileX, tileY);
+        // Obter tipo de terreno atual (as coordenadas já estão dentro do mapa)
+        TerrainType terrain = worldMap.getTerrainAtUnchecked(getTileX(), getTileY());
         
         // Aplicar efeitos do terreno
         switch (terrain) {
             case WATER:
                 // Reduzir velocidade na água, exceto para criaturas aquáticas
-                velocity.scl(0.9f);
+                scaleVelocity(0.9f);
                 break;
             case MOUNTAIN:
                 // Movimento mais lento em montanhas
-                velocity.scl(0.7f);
+                scaleVelocity(0.7f);
                 break;
             case SNOW:
                 // Perda adicional de energia no frio
-                energy -= 0.05f;
-                velocity.scl(0.8f);
+                store.energy[slot] -= 0.05f;
+                scaleVelocity(0.8f);
                 break;
             case FOREST:
                 // Floresta pode oferecer proteção/camuflagem
@@ -239,11 +426,12 @@ public abstract class Creature {
      * @return true se houver colisão
      */
     public boolean isCollidingWith(Creature other) {
-        // Verificar distância entre as criaturas
-        float distance = position.dst(other.position);
-        float minDistance = size + other.size;
+        // Verificar distância entre as criaturas (ao quadrado, sem raiz)
+        float dx = store.x[slot] - store.x[other.slot];
+        float dy = store.y[slot] - store.y[other.slot];
+        float minDistance = store.size[slot] + store.size[other.slot];
         
-        return distance < minDistance;
+        return dx * dx + dy * dy < minDistance * minDistance;
     }
     
     /**
@@ -252,7 +440,9 @@ public abstract class Creature {
      * @return Distância em pixels
      */
     public float distanceTo(Creature other) {
-        return position.dst(other.position);
+        float dx = store.x[slot] - store.x[other.slot];
+        float dy = store.y[slot] - store.y[other.slot];
+        return (float) Math.sqrt(dx * dx + dy * dy);
     }
     
     /**
@@ -260,14 +450,17 @@ public abstract class Creature {
      * @param amount Quantidade de energia
      */
     public void addEnergy(float amount) {
-        energy = Math.min(energy + amount, maxEnergy);
+        store.energy[slot] = Math.min(store.energy[slot] + amount, maxEnergy);
     }
     
     /**
      * Mata a criatura
      */
     public void die() {
+        if (!alive) return;
+        
         alive = false;
+        store.getPopulation().onDeath(getType());
     }
     
     /**
@@ -276,7 +469,7 @@ public abstract class Creature {
      */
     public boolean canReproduce() {
         // Precisa ter pelo menos 70% da energia total
-        return alive && energy > maxEnergy * 0.7f;
+        return alive && store.energy[slot] > maxEnergy * 0.7f;
     }
     
     /**
@@ -284,20 +477,189 @@ public abstract class Creature {
      * @param partner Parceiro para reprodução (pode ser null para reprodução assexuada)
      * @return Nova criatura
      */
-    public abstract Creature reproduce(Creature partner);
+    public Creature reproduce(Creature partner) {
+        // Verificar se pode reproduzir
+        if (!beginReproduction()) {
+            return null;
+        }
+        
+        // Criar novo genoma
+        Genome childGenome;
+        
+        if (acceptMate(partner)) {
+            // Reprodução sexual - misturar genomas
+            childGenome = Genome.combine(this.genome, partner.genome);
+        } else {
+            // Reprodução assexuada - clonar com mutações
+            childGenome = genome != null ? genome.clone() : new Genome();
+            childGenome.mutate();
+        }
+        
+        return spawnOffspring(childGenome);
+    }
+    
+    /**
+     * Primeira etapa da reprodução: verifica se a criatura pode reproduzir
+     * e paga o custo de energia. Usada diretamente quando os genomas dos
+     * filhotes são gerados em lote (ver BreedingBatch).
+     * @return true se a reprodução foi iniciada
+     */
+    public boolean beginReproduction() {
+        if (!isReadyToReproduce()) {
+            return false;
+        }
+        
+        // Consumir energia para reprodução
+        setEnergy(getEnergy() * getReproductionEnergyFactor());
+        onReproduce();
+        return true;
+    }
+    
+    /**
+     * Tenta usar um parceiro na reprodução iniciada por beginReproduction()
+     * @param partner Parceiro candidato (pode ser null)
+     * @return true se o parceiro foi aceito (e pagou o custo de energia)
+     */
+    public boolean acceptMate(Creature partner) {
+        if (partner == null || partner == this || partner.getType() != getType() || !partner.canReproduce()) {
+            return false;
+        }
+        
+        // Parceiro também gasta energia
+        partner.setEnergy(partner.getEnergy() * getReproductionEnergyFactor());
+        return true;
+    }
+    
+    /**
+     * Última etapa da reprodução: cria o filhote próximo à posição atual
+     * @param childGenome Genoma do filhote
+     * @return Nova criatura
+     */
+    public Creature spawnOffspring(Genome childGenome) {
+        float offsetX = MathUtils.random(-20f, 20f);
+        float offsetY = MathUtils.random(-20f, 20f);
+        
+        return store.obtain(getType(), getX() + offsetX, getY() + offsetY, worldMap, childGenome);
+    }
+    
+    /**
+     * Verifica as condições específicas da espécie para reproduzir
+     * @return true se pode iniciar a reprodução
+     */
+    protected boolean isReadyToReproduce() {
+        return canReproduce();
+    }
+    
+    /**
+     * Chamado quando a reprodução é iniciada (ex.: iniciar tempo de espera)
+     */
+    protected void onReproduce() {
+    }
+    
+    /**
+     * Fração da energia que os pais mantêm após reproduzir
+     * @return Fator entre 0 e 1
+     */
+    protected abstract float getReproductionEnergyFactor();
+    
+    /**
+     * Multiplica a velocidade atual por um fator
+     * @param factor Fator de escala
+     */
+    protected void scaleVelocity(float factor) {
+        store.vx[slot] *= factor;
+        store.vy[slot] *= factor;
+    }
+    
+    /**
+     * Obtém a espécie da criatura
+     * @return Tipo da criatura
+     */
+    public abstract CreatureType getType();
+    
+    /**
+     * Obtém o ordinal da espécie, sem chamada virtual
+     * @return Ordinal de getType()
+     */
+    public final int getSpecies() {
+        return species;
+    }
     
     // Getters e setters
     
+    /**
+     * Obtém a posição atual. O vetor é reutilizado entre chamadas;
+     * laços quentes devem preferir getX()/getY().
+     * @return Posição em pixels
+     */
     public Vector2 getPosition() {
-        return position;
+        return position.set(store.x[slot], store.y[slot]);
+    }
+    
+    public float getX() {
+        return store.x[slot];
+    }
+    
+    public float getY() {
+        return store.y[slot];
+    }
+    
+    protected void setPosition(float x, float y) {
+        store.x[slot] = x;
+        store.y[slot] = y;
+    }
+    
+    protected void setVelocity(float vx, float vy) {
+        store.vx[slot] = vx;
+        store.vy[slot] = vy;
     }
     
     public float getSize() {
-        return size;
+        return store.size[slot];
+    }
+    
+    public float getRotation() {
+        return rotation;
+    }
+    
+    public Genome getGenome() {
+        return genome;
+    }
+    
+    /**
+     * Obtém a espécie emergente da criatura (ver SpeciesTracker)
+     * @return Id do grupo genético, ou -1 se não houver
+     */
+    public int getCluster() {
+        return cluster;
+    }
+    
+    public void setCluster(int cluster) {
+        this.cluster = cluster;
+    }
+    
+    protected void setSize(float size) {
+        store.size[slot] = size;
     }
     
     public float getEnergy() {
-        return energy;
+        return store.energy[slot];
+    }
+    
+    protected void setEnergy(float energy) {
+        store.energy[slot] = energy;
+    }
+    
+    public float getAge() {
+        return store.age[slot];
+    }
+    
+    public int getSlot() {
+        return slot;
+    }
+    
+    public long getId() {
+        return id;
     }
     
     public boolean isAlive() {
@@ -0,0 +1,221 @@
+package com.evolution.sim.entities;
+
+import com.badlogic.gdx.utils.Array;
+import com.evolution.sim.genetics.Genome;
+import com.evolution.sim.world.WorldMap;
+
+import java.util.Arrays;
+
+/**
+ * Armazenamento em estrutura de arrays (SoA) dos atributos quentes das criaturas.
+ * Cada criatura ocupa um slot e lê/escreve posição, velocidade, tamanho, energia
+ * e idade nos arrays contíguos abaixo, para que os laços de atualização, colisão
+ * e renderização percorram a memória de forma linear.
+ *
+ * Os slots ocupados ficam sempre compactados em [0, size()): ao liberar um slot,
+ * o último é movido para o buraco e a criatura dona é avisada do novo índice.
+ * Os arrays podem ser realocados ao crescer, então não guarde referências a eles
+ * entre alocações.
+ *
+ * O armazenamento também recicla as instâncias: criaturas removidas com free()
+ * voltam para uma lista por espécie e são reaproveitadas por obtain().
+ */
+public class CreatureStore {
+    // Atributos por slot
+    public float[] x;
+    public float[] y;
+    public float[] vx;
+    public float[] vy;
+    public float[] size;
+    public float[] energy;
+    public float[] age;
+    
+    // Criatura dona de cada slot
+    private Creature[] owners;
+    private int count;
+    
+    // Instâncias recicladas por espécie
+    private final Array<Creature>[] freeCreatures;
+    
+    // Contadores de população atualizados em nascimentos e mortes
+    private final PopulationCounter population = new PopulationCounter();
+    
+    // Serviço de vizinhança usado pelas criaturas (fornecido pela simulação)
+    private PerceptionService perception;
+    
+    // Próximo identificador de criatura
+    private long nextId;
+    
+    public CreatureStore() {
+        this(256);
+    }
+    
+    @SuppressWarnings("unchecked")
+    public CreatureStore(int initialCapacity) {
+        x = new float[initialCapacity];
+        y = new float[initialCapacity];
+        vx = new float[initialCapacity];
+        vy = new float[initialCapacity];
+        size = new float[initialCapacity];
+        energy = new float[initialCapacity];
+        age = new float[initialCapacity];
+        owners = new Creature[initialCapacity];
+        
+        freeCreatures = new Array[CreatureType.values().length];
+        for (int i = 0; i < freeCreatures.length; i++) {
+            freeCreatures[i] = new Array<>(false, 16, Creature.class);
+        }
+    }
+    
+    /**
+     * Obtém uma criatura inicializada, reaproveitando uma instância reciclada se houver
+     * @param type Espécie da criatura
+     * @param x Posição x em pixels
+     * @param y Posição y em pixels
+     * @param worldMap Mapa do mundo
+     * @param genome Genoma da criatura (pode ser null)
+     * @return Criatura pronta para entrar na simulação
+     */
+    public Creature obtain(CreatureType type, float x, float y, WorldMap worldMap, Genome genome) {
+        Array<Creature> free = freeCreatures[type.ordinal()];
+        if (free.size > 0) {
+            Creature creature = free.pop();
+            creature.worldMap = worldMap;
+            creature.init(x, y, genome);
+            return creature;
+        }
+        
+        switch (type) {
+            case PREY:
+                return new Prey(x, y, worldMap, this, genome);
+            case PREDATOR:
+                return new Predator(x, y, worldMap, this, genome);
+            case CANNIBAL:
+                return new Cannibal(x, y, worldMap, this, genome);
+            default:
+                throw new IllegalArgumentException("Tipo de criatura desconhecido: " + type);
+        }
+    }
+    
+    /**
+     * Libera o slot de uma criatura removida e guarda a instância para reutilização.
+     * A criatura não pode mais ser referenciada pela simulação.
+     * @param creature Criatura removida
+     */
+    public void free(Creature creature) {
+        // Remover uma criatura viva conta como morte
+        if (creature.isAlive()) {
+            creature.die();
+        }
+        
+        release(creature);
+        creature.reset();
+        freeCreatures[creature.getType().ordinal()].add(creature);
+    }
+    
+    /**
+     * Reserva um slot para uma criatura
+     * @param owner Criatura que vai ocupar o slot
+     * @return Índice do slot
+     */
+    int allocate(Creature owner) {
+        if (count == owners.length) {
+            grow(count * 2);
+        }
+        
+        int slot = count++;
+        owners[slot] = owner;
+        x[slot] = 0f;
+        y[slot] = 0f;
+        vx[slot] = 0f;
+        vy[slot] = 0f;
+        size[slot] = 0f;
+        energy[slot] = 0f;
+        age[slot] = 0f;
+        return slot;
+    }
+    
+    /**
+     * Libera o slot de uma criatura, movendo o último slot para o seu lugar
+     * @param creature Criatura que deixa o armazenamento
+     */
+    public void release(Creature creature) {
+        int slot = creature.slot;
+        if (slot < 0 || owners[slot] != creature) {
+            return;
+        }
+        
+        int last = --count;
+        if (slot != last) {
+            x[slot] = x[last];
+            y[slot] = y[last];
+            vx[slot] = vx[last];
+            vy[slot] = vy[last];
+            size[slot] = size[last];
+            energy[slot] = energy[last];
+            age[slot] = age[last];
+            
+            Creature moved = owners[last];
+            owners[slot] = moved;
+            moved.slot = slot;
+        }
+        
+        owners[last] = null;
+        creature.slot = -1;
+    }
+    
+    /**
+     * Gera o identificador de uma nova criatura
+     * @return Identificador único neste armazenamento
+     */
+    long nextId() {
+        return nextId++;
+    }
+    
+    /**
+     * Remove todas as criaturas do armazenamento
+     */
+    public void clear() {
+        for (int i = 0; i < count; i++) {
+            owners[i].slot = -1;
+            owners[i] = null;
+        }
+        count = 0;
+    }
+    
+    private void grow(int capacity) {
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        vx = Arrays.copyOf(vx, capacity);
+        vy = Arrays.copyOf(vy, capacity);
+        size = Arrays.copyOf(size, capacity);
+        energy = Arrays.copyOf(energy, capacity);
+        age = Arrays.copyOf(age, capacity);
+        owners = Arrays.copyOf(owners, capacity);
+    }
+    
+    /**
+     * Define o serviço de vizinhança consultado pelas criaturas
+     * @param perception Serviço de percepção (null desativa a percepção)
+     */
+    public void setPerception(PerceptionService perception) {
+        this.perception = perception;
+    }
+    
+    // Getters
+    public PerceptionService getPerception() {
+        return perception;
+    }
+    
+    public PopulationCounter getPopulation() {
+        return population;
+    }
+    
+    public Creature getOwner(int slot) {
+        return owners[slot];
+    }
+    
+    public int size() {
+        return count;
+    }
+}
@@ -0,0 +1,16 @@
+package com.evolution.sim.entities;
+
+/**
+ * Espécies de criaturas existentes na simulação
+ */
+public enum CreatureType {
+    PREY, PREDATOR, CANNIBAL;
+    
+    /**
+     * Bit desta espécie em máscaras de espécies
+     * @return 1 deslocado pelo ordinal
+     */
+    public int mask() {
+        return 1 << ordinal();
+    }
+}
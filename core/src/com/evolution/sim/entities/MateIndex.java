@@ -0,0 +1,93 @@
+package com.evolution.sim.entities;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.evolution.sim.world.SpatialHashGrid;
+
+/**
+ * Índice de criaturas prontas para reproduzir, separado por espécie e
+ * agrupado por posição, para encontrar parceiros sem percorrer a população inteira
+ */
+public class MateIndex {
+    // Distância máxima entre parceiros
+    private final float searchRadius;
+    
+    // Uma grade por espécie, com os candidatos indexados por posição
+    private final ObjectMap<Class<? extends Creature>, SpatialHashGrid> grids;
+    private final Array<Creature> candidates;
+    private final IntArray results;
+    
+    public MateIndex(float searchRadius) {
+        this.searchRadius = searchRadius;
+        this.grids = new ObjectMap<>();
+        this.candidates = new Array<>();
+        this.results = new IntArray();
+    }
+    
+    /**
+     * Reconstrói o índice com as criaturas que podem reproduzir neste momento
+     * @param creatures População atual
+     */
+    public void rebuild(Array<Creature> creatures) {
+        candidates.clear();
+        
+        // Células do tamanho do raio de busca: um parceiro está sempre nas 3x3 células vizinhas
+        for (SpatialHashGrid grid : grids.values()) {
+            grid.begin(searchRadius);
+        }
+        
+        for (int i = 0; i < creatures.size; i++) {
+            Creature creature = creatures.get(i);
+            
+            if (!creature.canReproduce()) continue;
+            
+            SpatialHashGrid grid = grids.get(creature.getClass());
+            if (grid == null) {
+                grid = new SpatialHashGrid();
+                grid.begin(searchRadius);
+                grids.put(creature.getClass(), grid);
+            }
+            
+            grid.insert(candidates.size, creature.getX(), creature.getY());
+            candidates.add(creature);
+        }
+        
+        for (SpatialHashGrid grid : grids.values()) {
+            grid.build();
+        }
+    }
+    
+    /**
+     * Encontra o parceiro mais próximo da mesma espécie dentro do raio de busca
+     * @param creature Criatura que vai reproduzir
+     * @return Parceiro ou null se não houver nenhum disponível
+     */
+    public Creature findPartner(Creature creature) {
+        SpatialHashGrid grid = grids.get(creature.getClass());
+        if (grid == null) {
+            return null;
+        }
+        
+        results.clear();
+        grid.query(creature.getX(), creature.getY(), searchRadius, results);
+        
+        Creature bestPartner = null;
+        float bestDistance = searchRadius;
+        
+        for (int k = 0; k < results.size; k++) {
+            Creature other = candidates.get(results.get(k));
+            
+            // O estado pode ter mudado desde a reconstrução (ex.: já reproduziu neste tick)
+            if (other == creature || !other.canReproduce()) continue;
+            
+            float distance = creature.distanceTo(other);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                bestPartner = other;
+            }
+        }
+        
+        return bestPartner;
+    }
+}
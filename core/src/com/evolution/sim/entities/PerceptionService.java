@@ -0,0 +1,75 @@
+package com.evolution.sim.entities;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Consultas de vizinhança usadas pelas criaturas para perceber outras criaturas.
+ * As implementações devem ser seguras para chamadas concorrentes durante a
+ * atualização paralela e podem espaçar as consultas de cada criatura para
+ * respeitar o orçamento do tick.
+ */
+public interface PerceptionService {
+    
+    /**
+     * Indica se uma criatura pode fazer uma nova consulta neste tick. Toda criatura
+     * volta a poder consultar depois de um número limitado de ticks, independentemente
+     * da ordem ou da thread em que é atualizada, e nenhum tick passa do orçamento.
+     * @param slot Slot da criatura no armazenamento
+     * @return false se a criatura deve reutilizar sua última percepção
+     */
+    boolean isQueryDue(int slot);
+    
+    /**
+     * Verifica, com o estado do início do tick, se uma criatura percebida antes
+     * continua viva, de uma das espécies procuradas e dentro do alcance
+     * @param origin Criatura que está percebendo
+     * @param target Criatura percebida antes
+     * @param speciesMask Máscara de bits com (1 << ordinal) de cada espécie aceita
+     * @param range Alcance máximo em pixels
+     * @return true se a percepção ainda vale
+     */
+    boolean canPerceive(Creature origin, Creature target, int speciesMask, float range);
+    
+    /**
+     * Posição x de uma criatura no início do tick. Durante a atualização paralela
+     * a posição atual pode estar sendo alterada por outra thread.
+     * @param slot Slot de uma criatura retornada por uma consulta neste tick
+     */
+    float getX(int slot);
+    
+    /**
+     * Posição y de uma criatura no início do tick
+     * @param slot Slot de uma criatura retornada por uma consulta neste tick
+     */
+    float getY(int slot);
+    
+    /**
+     * Encontra a criatura viva mais próxima de um conjunto de espécies
+     * @param origin Criatura que está procurando (nunca é retornada)
+     * @param speciesMask Máscara de bits com (1 << ordinal) de cada espécie aceita
+     * @param range Alcance máximo em pixels
+     * @return Criatura mais próxima ou null se não houver nenhuma no alcance
+     */
+    Creature findNearest(Creature origin, int speciesMask, float range);
+    
+    /**
+     * Encontra as k criaturas vivas mais próximas, em ordem crescente de distância
+     * @param origin Criatura que está procurando (nunca é retornada)
+     * @param speciesMask Máscara de bits com (1 << ordinal) de cada espécie aceita
+     * @param range Alcance máximo em pixels
+     * @param k Número máximo de resultados
+     * @param out Lista que recebe os resultados (é limpa antes)
+     * @return Número de criaturas encontradas
+     */
+    int findNearest(Creature origin, int speciesMask, float range, int k, Array<Creature> out);
+    
+    /**
+     * Coleta todas as criaturas vivas dentro do alcance
+     * @param origin Criatura que está procurando (nunca é retornada)
+     * @param speciesMask Máscara de bits com (1 << ordinal) de cada espécie aceita
+     * @param range Alcance máximo em pixels
+     * @param out Lista que recebe os resultados (é limpa antes)
+     * @return Número de criaturas encontradas
+     */
+    int findInRange(Creature origin, int speciesMask, float range, Array<Creature> out);
+}
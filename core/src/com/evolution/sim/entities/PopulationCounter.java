@@ -0,0 +1,66 @@
+package com.evolution.sim.entities;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contadores de população mantidos de forma incremental: atualizados quando
+ * uma criatura nasce ou morre, em vez de recontar a população a cada tick.
+ * As mortes podem ocorrer durante a atualização paralela, por isso os
+ * contadores são atômicos.
+ */
+public class PopulationCounter {
+    // Criaturas vivas por espécie
+    private final AtomicIntegerArray alive = new AtomicIntegerArray(CreatureType.values().length);
+    
+    // Totais acumulados desde o início da simulação
+    private final AtomicLong totalSpawned = new AtomicLong();
+    private final AtomicLong totalDeaths = new AtomicLong();
+    
+    /**
+     * Registra uma criatura que entrou na simulação (nascimento ou inserção)
+     * @param type Espécie da criatura
+     */
+    void onSpawn(CreatureType type) {
+        alive.incrementAndGet(type.ordinal());
+        totalSpawned.incrementAndGet();
+    }
+    
+    /**
+     * Registra a morte de uma criatura
+     * @param type Espécie da criatura
+     */
+    void onDeath(CreatureType type) {
+        alive.decrementAndGet(type.ordinal());
+        totalDeaths.incrementAndGet();
+    }
+    
+    /**
+     * Obtém o número de criaturas vivas de uma espécie
+     * @param type Espécie
+     * @return Quantidade de criaturas vivas
+     */
+    public int getAlive(CreatureType type) {
+        return alive.get(type.ordinal());
+    }
+    
+    /**
+     * Obtém o número total de criaturas vivas
+     * @return Soma de todas as espécies
+     */
+    public int getTotalAlive() {
+        int total = 0;
+        for (int i = 0; i < alive.length(); i++) {
+            total += alive.get(i);
+        }
+        return total;
+    }
+    
+    public long getTotalSpawned() {
+        return totalSpawned.get();
+    }
+    
+    public long getTotalDeaths() {
+        return totalDeaths.get();
+    }
+}
@@ -1,9 +1,9 @@
 package com.evolution.sim.entities;
 
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import com.evolution.sim.genetics.Genome;
+import com.evolution.sim.genetics.TraitRegistry;
 import com.evolution.sim.world.WorldMap;
 
 import java.util.List;
@@ -12,6 +12,9 @@ import java.util.List;
  * Representa um predador que caça presas
  */
 public class Predator extends Creature {
+    // Cor usada na renderização (compartilhada, não alterar)
+    private static final Color COLOR = new Color(0.8f, 0.2f, 0.2f, 1.0f);
+    
     // Atributos específicos dos predadores
     private float preyDetectionRange;
     private float attackRange;
@@ -21,13 +24,34 @@ public class Predator extends Creature {
     private float huntingCooldown;
     private float huntingTimer;
     
-    public Predator(float x, float y, WorldMap worldMap) {
-        super(x, y, worldMap);
-        
+    // Ataque decidido durante update(), aplicado em applyDeferredEffects()
+    private Creature attackTarget;
+    
+    public Predator(float x, float y, WorldMap worldMap, CreatureStore store) {
+        this(x, y, worldMap, store, null);
+    }
+    
+    /**
+     * Construtor para criar filhotes com genoma
+     */
+    public Predator(float x, float y, WorldMap worldMap, CreatureStore store, Genome genome) {
+        super(worldMap, store);
+        init(x, y, genome);
+    }
+    
+    /**
+     * Cria a instância sem inicializá-la (usado pelas subclasses)
+     */
+    protected Predator(WorldMap worldMap, CreatureStore store) {
+        super(worldMap, store);
+    }
+    
+    @Override
+    protected void setDefaults() {
         // Configurações específicas para predadores
         this.maxSpeed = 70f;
-        this.size = 6f;
-        this.energy = 100f;
+        setSize(6f);
+        setEnergy(100f);
         this.maxEnergy = 150f;
         this.maxAge = 80f;
         
@@ -39,31 +63,20 @@ public class Predator extends Creature {
         this.reproductionTimer = 0f;
         this.huntingCooldown = 2f;
         this.huntingTimer = 0f;
-    }
-    
-    /**
-     * Construtor para criar filhotes com genoma
-     */
-    public Predator(float x, float y, WorldMap worldMap, Genome genome) {
-        this(x, y, worldMap);
-        this.genome = genome;
-        
-        // Aplicar modificações genéticas
-        if (genome != null) {
-            applyGenome();
-        }
+        this.attackTarget = null;
     }
     
     /**
      * Aplica os efeitos do genoma nos atributos
      */
-    private void applyGenome() {
+    @Override
+    protected void applyGenome() {
         // Implementação básica - será expandida no futuro
-        this.size = size * (1 + genome.getTraitValue("size", 0.2f) - 0.1f);
-        this.maxSpeed = maxSpeed * (1 + genome.getTraitValue("speed", 0.3f) - 0.15f);
-        this.maxEnergy = maxEnergy * (1 + genome.getTraitValue("energy", 0.2f) - 0.1f);
-        this.preyDetectionRange = preyDetectionRange * (1 + genome.getTraitValue("perception", 0.4f) - 0.2f);
-        this.attackStrength = attackStrength * (1 + genome.getTraitValue("strength", 0.3f) - 0.15f);
+        setSize(getSize() * (1 + genome.getTrait(TraitRegistry.SIZE, 0.2f) - 0.1f));
+        this.maxSpeed = maxSpeed * (1 + genome.getTrait(TraitRegistry.SPEED, 0.3f) - 0.15f);
+        this.maxEnergy = maxEnergy * (1 + genome.getTrait(TraitRegistry.ENERGY, 0.2f) - 0.1f);
+        this.preyDetectionRange = preyDetectionRange * (1 + genome.getTrait(TraitRegistry.PERCEPTION, 0.4f) - 0.2f);
+        this.attackStrength = attackStrength * (1 + genome.getTrait(TraitRegistry.STRENGTH, 0.3f) - 0.15f);
     }
     
     @Override
@@ -73,16 +86,16 @@ public class Predator extends Creature {
         huntingTimer -= delta;
         
         // Lógica de comportamento do predador
-        if (energy < maxEnergy * 0.4f) {
+        if (getEnergy() < maxEnergy * 0.4f) {
             // Se estiver com pouca energia, priorizar a caça
             huntPrey(delta);
-        } else if (energy > maxEnergy * 0.8f && reproductionTimer <= 0) {
+        } else if (getEnergy() > maxEnergy * 0.8f && reproductionTimer <= 0) {
             // Se estiver com energia alta e puder reproduzir, procurar parceiros
             // Na implementação real, procuraria por outros predadores
             moveRandomly(delta);
         } else {
             // Comportamento normal - alternar entre caça e exploração
-            if (MathUtils.randomBoolean(0.7f)) {
+            if (random.nextFloat() < 0.7f) {
                 huntPrey(delta);
             } else {
                 moveRandomly(delta);
@@ -95,22 +108,21 @@ public class Predator extends Creature {
      * @param delta Tempo desde o último frame
      */
     private void huntPrey(float delta) {
-        // Na implementação real, você teria uma referência às presas no mundo
-        // Por enquanto, apenas simularemos o comportamento
+        // Procurar a presa mais próxima no alcance de percepção
+        Creature prey = findNearestPrey();
         
-        // Simulando a detecção de uma presa
-        Vector2 preyPosition = findNearestPrey();
-        
-        if (preyPosition != null) {
-            // Perseguir a presa
-            moveToward(preyPosition, delta);
+        if (prey != null) {
+            // Perseguir a presa (pela posição do início do tick, que não muda durante a atualização paralela)
+            float preyX = getPerceivedX(prey);
+            float preyY = getPerceivedY(prey);
+            moveToward(preyX, preyY, delta);
             
             // Verificar se está no alcance de ataque
-            float distanceToPrey = position.dst(preyPosition);
+            float distanceToPrey = Vector2.dst(getX(), getY(), preyX, preyY);
             
             if (distanceToPrey <= attackRange && huntingTimer <= 0) {
                 // Atacar a presa
-                attack();
+                attack(prey);
                 
                 // Reiniciar o cooldown de ataque
                 huntingTimer = huntingCooldown;
@@ -123,63 +135,76 @@ public class Predator extends Creature {
     
     /**
      * Procura pela presa mais próxima
-     * @return Posição da presa ou null se não houver presa no alcance
+     * @return Presa ou null se não houver presa no alcance
      */
-    private Vector2 findNearestPrey() {
-        // Implementação simples - seria substituída por uma verificação real das presas no ambiente
-        // Na implementação real, você teria uma lista de presas para verificar
-        return null;
+    private Creature findNearestPrey() {
+        return perceiveNearest(getPreyMask(), preyDetectionRange);
     }
     
     /**
-     * Executa um ataque contra uma presa
+     * Espécies que este predador caça
+     * @return Máscara de espécies (CreatureType.mask())
      */
-    private void attack() {
-        // Na implementação real, você aplicaria dano à presa e possivelmente a mataria
-        // Se a presa morresse, o predador obteria energia dela
-        
-        // Simulação - apenas adicionar energia como se tivesse comido uma presa
-        addEnergy(30f);
+    protected int getPreyMask() {
+        return CreatureType.PREY.mask();
     }
     
-    @Override
-    protected Color getColor() {
-        // Cor avermelhada para predadores
-        return new Color(0.8f, 0.2f, 0.2f, 1.0f);
+    /**
+     * Executa um ataque contra uma presa. O dano envolve outra criatura,
+     * então é apenas registrado aqui e aplicado em applyDeferredEffects().
+     * @param prey Presa atacada
+     */
+    private void attack(Creature prey) {
+        attackTarget = prey;
     }
     
     @Override
-    public Creature reproduce(Creature partner) {
-        // Verificar se pode reproduzir
-        if (!canReproduce() || reproductionTimer > 0) {
-            return null;
-        }
+    public void applyDeferredEffects() {
+        Creature prey = attackTarget;
+        attackTarget = null;
         
-        // Consumir energia para reprodução
-        energy *= 0.7f;
+        if (prey == null || !alive || !prey.isAlive()) return;
         
+        // Aplicar dano à presa; se ela morrer, o predador obtém energia dela
+        prey.setEnergy(prey.getEnergy() - attackStrength);
+        if (prey.getEnergy() <= 0) {
+            addEnergy(prey.getSize() * 15f);
+            prey.die();
+        }
+    }
+    
+    @Override
+    protected boolean isReadyToReproduce() {
+        return canReproduce() && reproductionTimer <= 0;
+    }
+    
+    @Override
+    protected void onReproduce() {
         // Configurar timer de cooldown
         reproductionTimer = reproductionCooldown;
-        
-        // Criar novo genoma
-        Genome childGenome;
-        
-        if (partner != null && partner instanceof Predator && partner.canReproduce()) {
-            // Reprodução sexual - misturar genomas
-            Predator predatorPartner = (Predator) partner;
-            predatorPartner.energy *= 0.7f; // Parceiro também gasta energia
-            
-            childGenome = Genome.combine(this.genome, predatorPartner.genome);
-        } else {
-            // Reprodução assexuada - clonar com mutações
-            childGenome = genome.clone();
-            childGenome.mutate();
-        }
-        
-        // Criar filhote próximo à posição atual
-        float offsetX = MathUtils.random(-20f, 20f);
-        float offsetY = MathUtils.random(-20f, 20f);
-        
-        return new Predator(position.x + offsetX, position.y + offsetY, worldMap, childGenome);
+    }
+    
+    @Override
+    protected float getReproductionEnergyFactor() {
+        return 0.7f;
+    }
+    
+    @Override
+    protected Color getColor() {
+        // Cor avermelhada para predadores
+        return COLOR;
+    }
+    
+    @Override
+    public CreatureType getType() {
+        return CreatureType.PREDATOR;
+    }
+    
+    /**
+     * Obtém o traço genético de força (entre 0 e 1)
+     * @return Valor do traço de força
+     */
+    public float getStrength() {
+        return genome != null ? genome.getTrait(TraitRegistry.STRENGTH, 0.5f) : 0.5f;
     }
 }
@@ -2,8 +2,9 @@ package com.evolution.sim.entities;
 
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.math.Vector2;
 import com.evolution.sim.genetics.Genome;
+import com.evolution.sim.genetics.TraitRegistry;
+import com.evolution.sim.world.FoodField;
 import com.evolution.sim.world.TerrainType;
 import com.evolution.sim.world.WorldMap;
 
@@ -13,19 +14,36 @@ import java.util.List;
  * Representa uma criatura presa que se alimenta de vegetação
  */
 public class Prey extends Creature {
+    // Cor usada na renderização (compartilhada, não alterar)
+    private static final Color COLOR = new Color(0.2f, 0.8f, 0.6f, 1.0f);
+    
+    // Espécies das quais as presas fogem
+    private static final int PREDATOR_MASK = CreatureType.PREDATOR.mask() | CreatureType.CANNIBAL.mask();
+    
     // Atributos específicos das presas
     private float plantDetectionRange;
     private float predatorDetectionRange;
     private float reproductionCooldown;
     private float reproductionTimer;
     
-    public Prey(float x, float y, WorldMap worldMap) {
-        super(x, y, worldMap);
-        
+    public Prey(float x, float y, WorldMap worldMap, CreatureStore store) {
+        this(x, y, worldMap, store, null);
+    }
+    
+    /**
+     * Construtor para criar filhotes com genoma
+     */
+    public Prey(float x, float y, WorldMap worldMap, CreatureStore store, Genome genome) {
+        super(worldMap, store);
+        init(x, y, genome);
+    }
+    
+    @Override
+    protected void setDefaults() {
         // Configurações específicas para presas
         this.maxSpeed = 60f;
-        this.size = 4f;
-        this.energy = 50f;
+        setSize(4f);
+        setEnergy(50f);
         this.maxEnergy = 80f;
         this.maxAge = 60f;
         
@@ -36,29 +54,17 @@ public class Prey extends Creature {
         this.reproductionTimer = 0f;
     }
     
-    /**
-     * Construtor para criar filhotes com genoma
-     */
-    public Prey(float x, float y, WorldMap worldMap, Genome genome) {
-        this(x, y, worldMap);
-        this.genome = genome;
-        
-        // Aplicar modificações genéticas
-        if (genome != null) {
-            applyGenome();
-        }
-    }
-    
     /**
      * Aplica os efeitos do genoma nos atributos
      */
-    private void applyGenome() {
+    @Override
+    protected void applyGenome() {
         // Implementação básica - será expandida no futuro
-        this.size = size * (1 + genome.getTraitValue("size", 0.2f) - 0.1f);
-        this.maxSpeed = maxSpeed * (1 + genome.getTraitValue("speed", 0.3f) - 0.15f);
-        this.maxEnergy = maxEnergy * (1 + genome.getTraitValue("energy", 0.2f) - 0.1f);
-        this.plantDetectionRange = plantDetectionRange * (1 + genome.getTraitValue("perception", 0.4f) - 0.2f);
-        this.predatorDetectionRange = predatorDetectionRange * (1 + genome.getTraitValue("perception", 0.3f) - 0.15f);
+        setSize(getSize() * (1 + genome.getTrait(TraitRegistry.SIZE, 0.2f) - 0.1f));
+        this.maxSpeed = maxSpeed * (1 + genome.getTrait(TraitRegistry.SPEED, 0.3f) - 0.15f);
+        this.maxEnergy = maxEnergy * (1 + genome.getTrait(TraitRegistry.ENERGY, 0.2f) - 0.1f);
+        this.plantDetectionRange = plantDetectionRange * (1 + genome.getTrait(TraitRegistry.PERCEPTION, 0.4f) - 0.2f);
+        this.predatorDetectionRange = predatorDetectionRange * (1 + genome.getTrait(TraitRegistry.PERCEPTION, 0.3f) - 0.15f);
     }
     
     @Override
@@ -67,14 +73,14 @@ public class Prey extends Creature {
         reproductionTimer -= delta;
         
         // Lógica de comportamento da presa
-        Vector2 nearestPredator = findNearestPredator();
+        Creature nearestPredator = findNearestPredator();
         
         // Se houver um predador próximo, fugir
         if (nearestPredator != null) {
-            fleeFromPredator(nearestPredator, delta);
+            fleeFromPredator(getPerceivedX(nearestPredator), getPerceivedY(nearestPredator), delta);
         } else {
             // Se não houver predador, procurar comida
-            if (energy < maxEnergy * 0.7f) {
+            if (getEnergy() < maxEnergy * 0.7f) {
                 seekFood(delta);
             } else {
                 // Se estiver com energia suficiente, comportamento de procura por parceiros ou exploração
@@ -84,36 +90,31 @@ public class Prey extends Creature {
     }
     
     /**
-     * Procura pelo predador mais próximo
-     * @return Posição do predador ou null se não houver predador no alcance
+     * Procura pelo predador (ou canibal) mais próximo
+     * @return Predador ou null se não houver predador no alcance
      */
-    private Vector2 findNearestPredator() {
-        // Implementação simples - seria substituída por uma verificação real das criaturas no ambiente
-        // Na implementação real, você teria uma lista de predadores para verificar
-        return null;
+    private Creature findNearestPredator() {
+        return perceiveNearest(PREDATOR_MASK, predatorDetectionRange);
     }
     
     /**
      * Foge de um predador
-     * @param predatorPos Posição do predador
+     * @param predatorX Posição x do predador
+     * @param predatorY Posição y do predador
      * @param delta Tempo desde o último frame
      */
-    private void fleeFromPredator(Vector2 predatorPos, float delta) {
-        // Calcular direção oposta ao predador
-        Vector2 fleeDirection = new Vector2(position).sub(predatorPos).nor();
-        
-        // Rotação desejada para a fuga
-        float targetRotation = fleeDirection.angleDeg();
+    private void fleeFromPredator(float predatorX, float predatorY, float delta) {
+        // Rotação desejada para a fuga (direção oposta ao predador)
+        float targetRotation = MathUtils.atan2(getY() - predatorY, getX() - predatorX) * MathUtils.radiansToDegrees;
         
         // Ajustar rotação rapidamente (fuga é mais rápida que movimento normal)
         rotation = MathUtils.lerpAngleDeg(rotation, targetRotation, delta * 4f);
         
         // Mover na direção oposta ao predador usando velocidade máxima
-        velocity.x = MathUtils.cosDeg(rotation) * maxSpeed * 1.2f; // Velocidade de fuga aumentada
-        velocity.y = MathUtils.sinDeg(rotation) * maxSpeed * 1.2f;
+        setVelocity(MathUtils.cosDeg(rotation) * maxSpeed * 1.2f, MathUtils.sinDeg(rotation) * maxSpeed * 1.2f); // Velocidade de fuga aumentada
         
         // Consumir mais energia ao fugir
-        energy -= delta * 0.5f;
+        setEnergy(getEnergy() - delta * 0.5f);
     }
     
     /**
@@ -122,109 +123,90 @@ public class Prey extends Creature {
      */
     private void seekFood(float delta) {
         // Verificar terreno atual para alimentação
-        int tileX = (int) (position.x / 32);
-        int tileY = (int) (position.y / 32);
+        int tileX = getTileX();
+        int tileY = getTileY();
         
-        TerrainType currentTerrain = worldMap.getTerrainAt(tileX, tileY);
+        TerrainType currentTerrain = worldMap.getTerrainAtUnchecked(tileX, tileY);
         
         // Se estiver em um terreno com plantas (grama ou floresta), se alimentar
-        if (currentTerrain == TerrainType.GRASS || currentTerrain == TerrainType.FOREST) {
+        if (currentTerrain.isEdible()) {
             // Alimentar-se
             addEnergy(delta * 10f);
             
             // Movimento mais lento enquanto se alimenta
-            velocity.scl(0.3f);
+            scaleVelocity(0.3f);
         } else {
             // Procurar por terrenos com plantas
-            Vector2 foodTarget = findNearestFood();
-            
-            if (foodTarget != null) {
-                moveToward(foodTarget, delta);
-            } else {
+            if (!moveTowardNearestFood(tileX, tileY, delta)) {
                 moveRandomly(delta);
             }
         }
     }
     
     /**
-     * Procura pelo terreno com comida mais próximo
-     * @return Posição do terreno com comida ou null se não houver no alcance
+     * Move em direção ao terreno com comida mais próximo, consultando o campo
+     * de distância do mapa
+     * @param tileX Coluna do tile atual
+     * @param tileY Linha do tile atual
+     * @param delta Tempo desde o último frame
+     * @return false se não houver comida no alcance de detecção
      */
-    private Vector2 findNearestFood() {
-        // Verificar em uma área ao redor da criatura por terrenos com plantas
-        int tileSize = 32;
-        int currentTileX = (int) (position.x / tileSize);
-        int currentTileY = (int) (position.y / tileSize);
-        
-        // Raio de busca em tiles
-        int searchRadius = (int) (plantDetectionRange / tileSize);
+    private boolean moveTowardNearestFood(int tileX, int tileY, float delta) {
+        FoodField foodField = worldMap.getFoodField();
+        int foodTile = foodField.getNearestFood(tileX, tileY);
         
-        // Melhor posição encontrada
-        Vector2 bestPosition = null;
-        float bestDistance = Float.MAX_VALUE;
+        if (foodTile < 0) {
+            return false;
+        }
         
-        // Procurar em uma área quadrada
-        for (int x = currentTileX - searchRadius; x <= currentTileX + searchRadius; x++) {
-            for (int y = currentTileY - searchRadius; y <= currentTileY + searchRadius; y++) {
-                // Verificar se o terreno é adequado para alimentação
-                TerrainType terrainType = worldMap.getTerrainAt(x, y);
-                
-                if (terrainType == TerrainType.GRASS || terrainType == TerrainType.FOREST) {
-                    // Calcular posição central do tile
-                    Vector2 tileCenter = new Vector2(x * tileSize + tileSize/2, y * tileSize + tileSize/2);
-                    
-                    // Calcular distância
-                    float distance = position.dst(tileCenter);
-                    
-                    // Se for o mais próximo até agora e estiver dentro do alcance
-                    if (distance < bestDistance && distance <= plantDetectionRange) {
-                        bestDistance = distance;
-                        bestPosition = tileCenter;
-                    }
-                }
-            }
+        // Posição central do tile com comida
+        int tileSize = 32;
+        float targetX = foodField.tileX(foodTile) * tileSize + tileSize / 2f;
+        float targetY = foodField.tileY(foodTile) * tileSize + tileSize / 2f;
+        
+        // Ignorar comida fora do alcance de detecção
+        float dx = targetX - getX();
+        float dy = targetY - getY();
+        if (dx * dx + dy * dy > plantDetectionRange * plantDetectionRange) {
+            return false;
         }
         
-        return bestPosition;
+        moveToward(targetX, targetY, delta);
+        return true;
     }
     
     @Override
-    protected Color getColor() {
-        // Cor verde-azulada para presas
-        return new Color(0.2f, 0.8f, 0.6f, 1.0f);
+    protected boolean isReadyToReproduce() {
+        return canReproduce() && reproductionTimer <= 0;
     }
     
     @Override
-    public Creature reproduce(Creature partner) {
-        // Verificar se pode reproduzir
-        if (!canReproduce() || reproductionTimer > 0) {
-            return null;
-        }
-        
-        // Consumir energia para reprodução
-        energy *= 0.6f;
-        
+    protected void onReproduce() {
         // Configurar timer de cooldown
         reproductionTimer = reproductionCooldown;
-        
-        // Criar novo genoma
-        Genome childGenome;
-        
-        if (partner != null && partner instanceof Prey && partner.canReproduce()) {
-            // Reprodução sexual - misturar genomas
-            Prey preyPartner = (Prey) partner;
-            preyPartner.energy *= 0.6f; // Parceiro também gasta energia
-            
-            childGenome = Genome.combine(this.genome, preyPartner.genome);
-        } else {
-            // Reprodução assexuada - clonar com mutações
-            childGenome = genome.clone();
-            childGenome.mutate();
-        }
-        
-        // Criar filhote próximo à posição atual
-        float offsetX = MathUtils.random(-20f, 20f);
-        float offsetY = MathUtils.random(-20f, 20f);
-        
-        return new Prey(position.x + offsetX, position.y + offsetY, worldMap, childGenome);
-    }
\ No newline at end of file
+    }
+    
+    @Override
+    protected float getReproductionEnergyFactor() {
+        return 0.6f;
+    }
+    
+    @Override
+    protected Color getColor() {
+        // Cor verde-azulada para presas
+        return COLOR;
+    }
+    
+    @Override
+    public CreatureType getType() {
+        return CreatureType.PREY;
+    }
+    
+    /**
+     * Obtém o traço genético de velocidade (entre 0 e 1)
+     * @return Valor do traço de velocidade
+     */
+    public float getSpeed() {
+        return genome != null ? genome.getTrait(TraitRegistry.SPEED, 0.5f) : 0.5f;
+    }
+}
@@ -0,0 +1,250 @@
+package com.evolution.sim.genetics;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
+
+import java.util.Arrays;
+
+/**
+ * Gera os genomas de muitos filhotes de uma vez. Os pares de pais são
+ * copiados para matrizes planas (uma linha por filhote, uma coluna por
+ * traço), as escolhas aleatórias são sorteadas em um laço à parte, e o
+ * cruzamento e a mutação são aplicados por um laço só aritmético, sem
+ * desvios, que o JIT consegue vetorizar.
+ *
+ * As regras são as mesmas de Genome.combine() e Genome.mutate():
+ * - pares sexuais: média dos pais ou traço de um deles, e depois mutação
+ *   com chance de MUTATION_CHANCE * 2;
+ * - reprodução assexuada: cópia do pai, sempre seguida de mutação;
+ * - um par sexual sem genoma em um dos pais gera um genoma aleatório.
+ */
+public class BreedingBatch {
+    // Escala de 24 bits aleatórios para um float em [0, 1)
+    private static final float UNIT = 0x1.0p-24f;
+    
+    // Pais de cada filhote (segundo pai null = reprodução assexuada)
+    private final Array<Genome> firstParents = new Array<>(false, 64, Genome.class);
+    private final Array<Genome> secondParents = new Array<>(false, 64, Genome.class);
+    private boolean[] sexual = new boolean[64];
+    private int count;
+    
+    // Matrizes planas (count x stride)
+    private int stride;
+    private float[] first = new float[0];
+    private float[] second = new float[0];
+    private float[] children = new float[0];
+    
+    // Escolhas sorteadas por célula: 0/1 para o pai e a média, e o valor da mutação
+    private float[] takeFirst = new float[0];
+    private float[] useParent = new float[0];
+    private float[] mutation = new float[0];
+    private float[] rowMutationChance = new float[0];
+    
+    // Gerador xorshift64* próprio, para gerar os números em sequência
+    private long seed;
+    
+    public BreedingBatch() {
+        this(MathUtils.random.nextLong());
+    }
+    
+    public BreedingBatch(long seed) {
+        setSeed(seed);
+    }
+    
+    /**
+     * Adiciona um filhote de reprodução sexual
+     * @param parent1 Genoma do primeiro pai (pode ser null)
+     * @param parent2 Genoma do segundo pai (pode ser null)
+     * @return Índice do filhote no lote
+     */
+    public int addPair(Genome parent1, Genome parent2) {
+        return add(parent1, parent2, true);
+    }
+    
+    /**
+     * Adiciona um filhote de reprodução assexuada
+     * @param parent Genoma do pai (pode ser null)
+     * @return Índice do filhote no lote
+     */
+    public int addClone(Genome parent) {
+        return add(parent, null, false);
+    }
+    
+    private int add(Genome parent1, Genome parent2, boolean isSexual) {
+        if (count == sexual.length) {
+            sexual = Arrays.copyOf(sexual, count * 2);
+        }
+        firstParents.add(parent1);
+        secondParents.add(parent2);
+        sexual[count] = isSexual;
+        return count++;
+    }
+    
+    /**
+     * Gera os genomas de todos os filhotes adicionados
+     */
+    public void breed() {
+        stride = TraitRegistry.count();
+        int cells = count * stride;
+        ensureCapacity(cells);
+        
+        gatherParents();
+        drawChoices();
+        
+        // Cruzamento e mutação sobre a matriz inteira: só aritmética, sem desvios
+        // nem chamadas, para que o JIT possa vetorizar o laço
+        for (int j = 0; j < cells; j++) {
+            float a = first[j];
+            float b = second[j];
+            
+            float average = (a + b) * 0.5f;
+            float parent = b + takeFirst[j] * (a - b);
+            float value = average + useParent[j] * (parent - average) + mutation[j];
+            
+            // Limitar a [0, 1] com abs (vetorizável e preserva NaN = traço ausente)
+            children[j] = 0.5f * (Math.abs(value) - Math.abs(value - 1f) + 1f);
+        }
+    }
+    
+    /**
+     * Copia os pais para as matrizes e define a chance de mutação de cada linha
+     */
+    private void gatherParents() {
+        for (int i = 0; i < count; i++) {
+            int offset = i * stride;
+            Genome parent1 = firstParents.get(i);
+            Genome parent2 = secondParents.get(i);
+            
+            if (sexual[i] && (parent1 == null || parent2 == null)) {
+                // Como em Genome.combine(): genoma aleatório, sem mutação
+                new Genome().copyValues(first, offset, stride);
+                System.arraycopy(first, offset, second, offset, stride);
+                rowMutationChance[i] = 0f;
+            } else if (!sexual[i]) {
+                // Cópia do pai, sempre com mutação
+                (parent1 != null ? parent1 : new Genome()).copyValues(first, offset, stride);
+                System.arraycopy(first, offset, second, offset, stride);
+                rowMutationChance[i] = 1f;
+            } else {
+                parent1.copyValues(first, offset, stride);
+                parent2.copyValues(second, offset, stride);
+                rowMutationChance[i] = Genome.MUTATION_CHANCE * 2;
+                
+                // Traço de apenas um dos pais: usar o valor dele nos dois lados
+                for (int j = offset; j < offset + stride; j++) {
+                    if (first[j] != first[j]) first[j] = second[j];
+                    if (second[j] != second[j]) second[j] = first[j];
+                }
+            }
+        }
+    }
+    
+    /**
+     * Sorteia as escolhas de cada célula com um gerador xorshift64*, usando
+     * os bits de um único número por célula: escolha do pai, média ou pai,
+     * sorteio da mutação e quantidade mutada
+     */
+    private void drawChoices() {
+        int traitThreshold = (int) (Genome.MUTATION_CHANCE * (1 << 24));
+        long x = seed;
+        
+        for (int i = 0; i < count; i++) {
+            // Sorteio da mutação do filhote inteiro
+            x ^= x >>> 12;
+            x ^= x << 25;
+            x ^= x >>> 27;
+            int rowThreshold = (int) (rowMutationChance[i] * (1 << 24));
+            float mutateRow = (int) (((((x * 0x2545F4914F6CDD1DL) >>> 40) - rowThreshold) >>> 63));
+            
+            for (int j = i * stride, end = j + stride; j < end; j++) {
+                x ^= x >>> 12;
+                x ^= x << 25;
+                x ^= x >>> 27;
+                long bits = x * 0x2545F4914F6CDD1DL;
+                
+                // (v - limite) >>> 63 vale 1 quando v < limite, sem desvio
+                int roll = (int) ((bits >>> 2) & 0xFFFFFF);
+                float mutateTrait = mutateRow * ((roll - traitThreshold) >>> 31);
+                float amount = (bits >>> 40) * UNIT * 2f - 1f;
+                
+                takeFirst[j] = (int) (bits & 1);
+                useParent[j] = (int) ((bits >>> 1) & 1);
+                mutation[j] = mutateTrait * amount * Genome.MUTATION_AMOUNT;
+            }
+        }
+        seed = x;
+    }
+    
+    private void ensureCapacity(int cells) {
+        if (first.length < cells) {
+            int capacity = Math.max(cells, first.length * 2);
+            first = new float[capacity];
+            second = new float[capacity];
+            children = new float[capacity];
+            takeFirst = new float[capacity];
+            useParent = new float[capacity];
+            mutation = new float[capacity];
+        }
+        if (rowMutationChance.length < count) {
+            rowMutationChance = new float[Math.max(count, rowMutationChance.length * 2)];
+        }
+    }
+    
+    /**
+     * Obtém o genoma gerado para um filhote (após breed())
+     * @param index Índice retornado por addPair() ou addClone()
+     * @return Novo genoma
+     */
+    public Genome getChild(int index) {
+        int offset = index * stride;
+        
+        // Clone sem nenhuma mutação: compartilhar os valores do pai
+        Genome parent = firstParents.get(index);
+        if (!sexual[index] && parent != null && !isMutated(offset)) {
+            return parent.clone();
+        }
+        
+        return new Genome(Arrays.copyOfRange(children, offset, offset + stride));
+    }
+    
+    private boolean isMutated(int offset) {
+        for (int j = offset; j < offset + stride; j++) {
+            if (mutation[j] != 0f) return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Matriz plana com os traços dos filhotes (válida até o próximo breed())
+     * @return Matriz com count() linhas de getStride() colunas
+     */
+    public float[] getChildMatrix() {
+        return children;
+    }
+    
+    /**
+     * Esvazia o lote para reutilização
+     */
+    public void clear() {
+        firstParents.clear();
+        secondParents.clear();
+        count = 0;
+    }
+    
+    /**
+     * Define a semente do gerador de números aleatórios
+     */
+    public void setSeed(long seed) {
+        // O estado do xorshift não pode ser zero
+        this.seed = seed != 0 ? seed : 0x9E3779B97F4A7C15L;
+    }
+    
+    // Getters
+    public int size() {
+        return count;
+    }
+    
+    public int getStride() {
+        return stride;
+    }
+}
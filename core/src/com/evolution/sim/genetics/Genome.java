@@ -1,36 +1,61 @@
 package com.evolution.sim.genetics;
 
 import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.utils.Array;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Map;
 
 /**
- * Representa o genoma de uma criatura, contendo todos os seus traços genéticos
+ * Representa o genoma de uma criatura, contendo todos os seus traços genéticos.
+ * Os valores ficam em um array indexado pelos ids do TraitRegistry; traços
+ * ausentes são marcados com NaN.
+ *
+ * O array é copiado na escrita: clones compartilham os valores até que
+ * um traço seja de fato alterado.
  */
 public class Genome {
-    // Mapa de traços genéticos
-    private Map<String, Float> traits;
+    // Valores dos traços por id (NaN = traço ausente)
+    float[] values;
     
-    // Constantes
-    private static final float MUTATION_CHANCE = 0.2f;
-    private static final float MUTATION_AMOUNT = 0.2f;
+    // O array de valores pode estar compartilhado com outros genomas
+    private boolean shared;
+    
+    // Constantes (compartilhadas com o BreedingBatch)
+    static final float MUTATION_CHANCE = 0.2f;
+    static final float MUTATION_AMOUNT = 0.2f;
+    static final float ABSENT = Float.NaN;
     
     /**
      * Cria um novo genoma com traços aleatórios
      */
     public Genome() {
-        traits = new HashMap<>();
+        values = emptyValues(TraitRegistry.count());
         randomizeTraits();
     }
     
     /**
      * Cria um genoma com traços específicos
-     * @param traits Mapa de traços
+     * @param traits Mapa de traços por nome
      */
     public Genome(Map<String, Float> traits) {
-        this.traits = new HashMap<>(traits);
+        values = emptyValues(TraitRegistry.count());
+        for (Map.Entry<String, Float> entry : traits.entrySet()) {
+            setTrait(TraitRegistry.register(entry.getKey()), entry.getValue());
+        }
+    }
+    
+    /**
+     * Cria um genoma usando diretamente um array de valores (sem cópia)
+     * @param values Valores indexados pelos ids do TraitRegistry
+     */
+    Genome(float[] values) {
+        this.values = values;
+    }
+    
+    static float[] emptyValues(int length) {
+        float[] values = new float[length];
+        Arrays.fill(values, ABSENT);
+        return values;
     }
     
     /**
@@ -38,56 +63,125 @@ public class Genome {
      */
     private void randomizeTraits() {
         // Traços básicos para todos os tipos de criaturas
-        traits.put("size", MathUtils.random(0f, 1f));
-        traits.put("speed", MathUtils.random(0f, 1f));
-        traits.put("energy", MathUtils.random(0f, 1f));
-        traits.put("perception", MathUtils.random(0f, 1f));
-        traits.put("strength", MathUtils.random(0f, 1f));
-        traits.put("reproduction", MathUtils.random(0f, 1f));
-        traits.put("adaption", MathUtils.random(0f, 1f));
+        values[TraitRegistry.SIZE] = MathUtils.random(0f, 1f);
+        values[TraitRegistry.SPEED] = MathUtils.random(0f, 1f);
+        values[TraitRegistry.ENERGY] = MathUtils.random(0f, 1f);
+        values[TraitRegistry.PERCEPTION] = MathUtils.random(0f, 1f);
+        values[TraitRegistry.STRENGTH] = MathUtils.random(0f, 1f);
+        values[TraitRegistry.REPRODUCTION] = MathUtils.random(0f, 1f);
+        values[TraitRegistry.ADAPTION] = MathUtils.random(0f, 1f);
     }
     
     /**
      * Obtém o valor de um traço
+     * @param traitId Id do traço (TraitRegistry)
+     * @param defaultValue Valor padrão caso o traço não exista
+     * @return Valor do traço
+     */
+    public float getTrait(int traitId, float defaultValue) {
+        if (traitId < 0 || traitId >= values.length) {
+            return defaultValue;
+        }
+        float value = values[traitId];
+        return value != value ? defaultValue : value; // NaN = ausente
+    }
+    
+    /**
+     * Define o valor de um traço
+     * @param traitId Id do traço (TraitRegistry)
+     * @param value Valor do traço (entre 0 e 1)
+     */
+    public void setTrait(int traitId, float value) {
+        if (traitId >= values.length) {
+            // Traço registrado depois da criação deste genoma (a cópia já é exclusiva)
+            int oldLength = values.length;
+            values = Arrays.copyOf(values, TraitRegistry.count());
+            Arrays.fill(values, oldLength, values.length, ABSENT);
+            shared = false;
+        } else {
+            ensureWritable();
+        }
+        
+        // Garantir que o valor esteja entre 0 e 1
+        values[traitId] = Math.max(0f, Math.min(1f, value));
+    }
+    
+    /**
+     * Copia os valores dos traços para uma linha de uma matriz
+     * @param target Matriz de destino
+     * @param offset Início da linha
+     * @param length Número de traços da linha (traços faltantes viram NaN)
+     */
+    void copyValues(float[] target, int offset, int length) {
+        int copied = Math.min(length, values.length);
+        System.arraycopy(values, 0, target, offset, copied);
+        Arrays.fill(target, offset + copied, offset + length, ABSENT);
+    }
+    
+    /**
+     * Indica se o genoma possui um traço
+     * @param traitId Id do traço (TraitRegistry)
+     */
+    public boolean hasTrait(int traitId) {
+        return traitId >= 0 && traitId < values.length && values[traitId] == values[traitId];
+    }
+    
+    /**
+     * Obtém o valor de um traço pelo nome (camada de compatibilidade; prefira getTrait)
      * @param traitName Nome do traço
      * @param defaultValue Valor padrão caso o traço não exista
      * @return Valor do traço
      */
     public float getTraitValue(String traitName, float defaultValue) {
-        return traits.getOrDefault(traitName, defaultValue);
+        return getTrait(TraitRegistry.idOf(traitName), defaultValue);
     }
     
     /**
-     * Define o valor de um traço
+     * Define o valor de um traço pelo nome, registrando traços novos
      * @param traitName Nome do traço
      * @param value Valor do traço (entre 0 e 1)
      */
     public void setTraitValue(String traitName, float value) {
-        // Garantir que o valor esteja entre 0 e 1
-        value = Math.max(0f, Math.min(1f, value));
-        traits.put(traitName, value);
+        setTrait(TraitRegistry.register(traitName), value);
     }
     
     /**
      * Aplica mutações aleatórias aos traços
      */
     public void mutate() {
-        for (String traitName : traits.keySet()) {
-            // Chance de mutação para cada traço
-            if (MathUtils.random() < MUTATION_CHANCE) {
-                float currentValue = traits.get(traitName);
+        for (int id = 0; id < values.length; id++) {
+            float currentValue = values[id];
+            
+            // Chance de mutação para cada traço presente
+            if (currentValue == currentValue && MathUtils.random() < MUTATION_CHANCE) {
+                // Copiar os valores compartilhados só na primeira alteração
+                ensureWritable();
                 float mutation = MathUtils.random(-MUTATION_AMOUNT, MUTATION_AMOUNT);
-                setTraitValue(traitName, currentValue + mutation);
+                values[id] = Math.max(0f, Math.min(1f, currentValue + mutation));
             }
         }
     }
     
     /**
-     * Cria um clone deste genoma
+     * Cria um clone deste genoma. Os dois compartilham os valores até que
+     * um deles altere algum traço.
      * @return Novo genoma idêntico
      */
     public Genome clone() {
-        return new Genome(new HashMap<>(traits));
+        shared = true;
+        Genome copy = new Genome(values);
+        copy.shared = true;
+        return copy;
+    }
+    
+    /**
+     * Garante que o array de valores pertence apenas a este genoma
+     */
+    private void ensureWritable() {
+        if (shared) {
+            values = values.clone();
+            shared = false;
+        }
     }
     
     /**
@@ -102,45 +196,32 @@ public class Genome {
             return new Genome();
         }
         
-        // Criar novo mapa de traços
-        Map<String, Float> childTraits = new HashMap<>();
+        float[] values1 = parent1.values;
+        float[] values2 = parent2.values;
+        float[] childValues = new float[Math.max(values1.length, values2.length)];
         
-        // Combinar traços dos pais
-        for (String traitName : parent1.traits.keySet()) {
-            // Se ambos os pais têm o traço
-            if (parent2.traits.containsKey(traitName)) {
-                float value1 = parent1.traits.get(traitName);
-                float value2 = parent2.traits.get(traitName);
-                
-                // Diferentes estratégias de combinação:
-                float combinedValue;
-                
+        for (int id = 0; id < childValues.length; id++) {
+            float value1 = id < values1.length ? values1[id] : ABSENT;
+            float value2 = id < values2.length ? values2[id] : ABSENT;
+            
+            if (value1 == value1 && value2 == value2) {
+                // Se ambos os pais têm o traço, diferentes estratégias de combinação:
                 // 1. Média simples
                 if (MathUtils.randomBoolean(0.5f)) {
-                    combinedValue = (value1 + value2) / 2f;
-                } 
+                    childValues[id] = (value1 + value2) / 2f;
+                }
                 // 2. Favor a um dos pais
                 else {
-                    combinedValue = MathUtils.randomBoolean() ? value1 : value2;
+                    childValues[id] = MathUtils.randomBoolean() ? value1 : value2;
                 }
-                
-                childTraits.put(traitName, combinedValue);
-            } 
-            // Se apenas o primeiro pai tem o traço
-            else {
-                childTraits.put(traitName, parent1.traits.get(traitName));
-            }
-        }
-        
-        // Adicionar traços exclusivos do segundo pai
-        for (String traitName : parent2.traits.keySet()) {
-            if (!parent1.traits.containsKey(traitName)) {
-                childTraits.put(traitName, parent2.traits.get(traitName));
+            } else {
+                // Traço de apenas um dos pais (ou de nenhum: continua NaN)
+                childValues[id] = value1 == value1 ? value1 : value2;
             }
         }
         
         // Criar novo genoma
-        Genome childGenome = new Genome(childTraits);
+        Genome childGenome = new Genome(childValues);
         
         // Chance de mutação após combinação
         if (MathUtils.random() < MUTATION_CHANCE * 2) {
@@ -161,13 +242,12 @@ public class Genome {
         float totalDifference = 0f;
         int traitCount = 0;
         
-        // Comparar traços em comum
-        for (String traitName : traits.keySet()) {
-            if (other.traits.containsKey(traitName)) {
-                float value1 = traits.get(traitName);
-                float value2 = other.traits.get(traitName);
-                
-                totalDifference += Math.abs(value1 - value2);
+        // Comparar traços em comum (NaN em qualquer lado descarta o traço)
+        int length = Math.min(values.length, other.values.length);
+        for (int id = 0; id < length; id++) {
+            float difference = Math.abs(values[id] - other.values[id]);
+            if (difference == difference) {
+                totalDifference += difference;
                 traitCount++;
             }
         }
@@ -187,15 +267,17 @@ public class Genome {
     public String toString() {
         StringBuilder builder = new StringBuilder("Genome{");
         
-        for (Map.Entry<String, Float> entry : traits.entrySet()) {
-            builder.append(entry.getKey())
+        for (int id = 0; id < values.length; id++) {
+            if (!hasTrait(id)) continue;
+            
+            builder.append(TraitRegistry.nameOf(id))
                    .append("=")
-                   .append(String.format("%.2f", entry.getValue()))
+                   .append(String.format("%.2f", values[id]))
                    .append(", ");
         }
         
         // Remover a última vírgula e espaço
-        if (!traits.isEmpty()) {
+        if (builder.length() > "Genome{".length()) {
             builder.delete(builder.length() - 2, builder.length());
         }
         
@@ -0,0 +1,281 @@
+package com.evolution.sim.genetics;
+
+import com.badlogic.gdx.utils.LongMap;
+
+/**
+ * Registro de linhagens: quem descende de quem, quando cada criatura nasceu
+ * e morreu e uma cópia compacta do seu genoma.
+ *
+ * Para que a memória fique limitada ao longo de milhões de nascimentos, só
+ * são mantidos os indivíduos vivos e os ancestrais mortos que ainda separam
+ * linhagens vivas: um ramo morto sem descendentes vivos é removido, e um
+ * ancestral morto com um único filho registrado é substituído por esse filho
+ * (o filho passa a apontar para o avô). Assim há no máximo dois nós por
+ * criatura viva, e o ancestral comum mais recente de indivíduos vivos nunca
+ * é removido.
+ *
+ * A árvore segue o primeiro pai (quem iniciou a reprodução); o parceiro é
+ * apenas anotado. Não é seguro para uso concorrente.
+ */
+public class LineageStore {
+    public static final long NO_PARENT = -1;
+    
+    // Traço ausente no genoma compacto
+    private static final byte ABSENT_TRAIT = (byte) 255;
+    
+    private final LongMap<Node> nodes = new LongMap<>();
+    
+    // Estatísticas
+    private long totalBirths;
+    private long removedNodes;
+    
+    /**
+     * Nó da árvore, com filhos em lista duplamente encadeada
+     */
+    private static class Node {
+        final long id;
+        final long parentId;
+        final long mateId;
+        final long birthTick;
+        final int generation;
+        final byte[] genome;
+        long deathTick = -1;
+        
+        // Ancestral mantido mais próximo (o pai, a menos que tenha sido removido)
+        Node parent;
+        Node firstChild;
+        Node previousSibling;
+        Node nextSibling;
+        int childCount;
+        
+        // Indivíduos vivos e nascimentos registrados no clado (inclui o próprio)
+        int livingInClade;
+        long birthsInClade;
+        
+        Node(long id, long parentId, long mateId, long birthTick, int generation, byte[] genome) {
+            this.id = id;
+            this.parentId = parentId;
+            this.mateId = mateId;
+            this.birthTick = birthTick;
+            this.generation = generation;
+            this.genome = genome;
+        }
+        
+        boolean isAlive() {
+            return deathTick < 0;
+        }
+    }
+    
+    /**
+     * Registra o nascimento de uma criatura
+     * @param id Identificador da criatura
+     * @param parentId Primeiro pai (NO_PARENT para criaturas sem pais)
+     * @param mateId Parceiro na reprodução sexual (NO_PARENT se assexuada)
+     * @param tick Tick do nascimento
+     * @param genome Genoma (pode ser null)
+     */
+    public void recordBirth(long id, long parentId, long mateId, long tick, Genome genome) {
+        Node parent = parentId != NO_PARENT ? nodes.get(parentId) : null;
+        Node node = new Node(id, parentId, mateId, tick, parent != null ? parent.generation + 1 : 0, compact(genome));
+        nodes.put(id, node);
+        totalBirths++;
+        
+        if (parent != null) {
+            link(parent, node);
+        }
+        
+        // O novo indivíduo conta em todos os clados acima dele
+        for (Node ancestor = node; ancestor != null; ancestor = ancestor.parent) {
+            ancestor.livingInClade++;
+            ancestor.birthsInClade++;
+        }
+    }
+    
+    /**
+     * Registra a morte de uma criatura e remove os ramos que deixaram de ser necessários
+     * @param id Identificador da criatura
+     * @param tick Tick da morte
+     */
+    public void recordDeath(long id, long tick) {
+        Node node = nodes.get(id);
+        if (node == null || !node.isAlive()) return;
+        
+        node.deathTick = tick;
+        for (Node ancestor = node; ancestor != null; ancestor = ancestor.parent) {
+            ancestor.livingInClade--;
+        }
+        
+        prune(node);
+    }
+    
+    /**
+     * Remove ou encurta a partir de um nó morto: sem filhos ele sai da árvore
+     * (e o pai é verificado em seguida); com um filho, o filho toma o seu lugar.
+     */
+    private void prune(Node node) {
+        while (node != null && !node.isAlive()) {
+            Node parent = node.parent;
+            
+            if (node.childCount == 0) {
+                unlink(node);
+                nodes.remove(node.id);
+                removedNodes++;
+                node = parent;
+            } else if (node.childCount == 1) {
+                Node child = node.firstChild;
+                unlink(child);
+                unlink(node);
+                if (parent != null) {
+                    link(parent, child);
+                }
+                nodes.remove(node.id);
+                removedNodes++;
+                return;
+            } else {
+                return;
+            }
+        }
+    }
+    
+    private void link(Node parent, Node child) {
+        child.parent = parent;
+        child.previousSibling = null;
+        child.nextSibling = parent.firstChild;
+        if (parent.firstChild != null) {
+            parent.firstChild.previousSibling = child;
+        }
+        parent.firstChild = child;
+        parent.childCount++;
+    }
+    
+    private void unlink(Node child) {
+        Node parent = child.parent;
+        if (parent != null) {
+            if (child.previousSibling != null) {
+                child.previousSibling.nextSibling = child.nextSibling;
+            } else {
+                parent.firstChild = child.nextSibling;
+            }
+            if (child.nextSibling != null) {
+                child.nextSibling.previousSibling = child.previousSibling;
+            }
+            parent.childCount--;
+        }
+        child.parent = null;
+        child.previousSibling = null;
+        child.nextSibling = null;
+    }
+    
+    /**
+     * Encontra o ancestral comum mais recente de dois indivíduos registrados.
+     * Sobe pelas gerações de nascimento, que não mudam quando nós são removidos.
+     * @return Id do ancestral (pode ser um dos dois) ou NO_PARENT se não houver
+     */
+    public long getMostRecentCommonAncestor(long firstId, long secondId) {
+        Node a = nodes.get(firstId);
+        Node b = nodes.get(secondId);
+        
+        while (a != null && b != null && a != b) {
+            if (a.generation >= b.generation) {
+                a = a.parent;
+            } else {
+                b = b.parent;
+            }
+        }
+        
+        return a != null && a == b ? a.id : NO_PARENT;
+    }
+    
+    /**
+     * Número de indivíduos vivos no clado (o próprio e os descendentes)
+     */
+    public int getCladeSize(long id) {
+        Node node = nodes.get(id);
+        return node != null ? node.livingInClade : 0;
+    }
+    
+    /**
+     * Número de nascimentos registrados no clado desde o nascimento do ancestral
+     */
+    public long getCladeBirths(long id) {
+        Node node = nodes.get(id);
+        return node != null ? node.birthsInClade : 0;
+    }
+    
+    /**
+     * Ancestral mantido mais próximo (o pai, a menos que tenha sido removido)
+     */
+    public long getAncestor(long id) {
+        Node node = nodes.get(id);
+        return node != null && node.parent != null ? node.parent.id : NO_PARENT;
+    }
+    
+    public long getParent(long id) {
+        Node node = nodes.get(id);
+        return node != null ? node.parentId : NO_PARENT;
+    }
+    
+    public long getMate(long id) {
+        Node node = nodes.get(id);
+        return node != null ? node.mateId : NO_PARENT;
+    }
+    
+    public long getBirthTick(long id) {
+        Node node = nodes.get(id);
+        return node != null ? node.birthTick : -1;
+    }
+    
+    /**
+     * Tick da morte, ou -1 se o indivíduo ainda está vivo (ou não é conhecido)
+     */
+    public long getDeathTick(long id) {
+        Node node = nodes.get(id);
+        return node != null ? node.deathTick : -1;
+    }
+    
+    /**
+     * Valor de um traço no genoma compacto (precisão de 1/254)
+     */
+    public float getTrait(long id, int traitId, float defaultValue) {
+        Node node = nodes.get(id);
+        if (node == null || node.genome == null || traitId < 0 || traitId >= node.genome.length) {
+            return defaultValue;
+        }
+        byte value = node.genome[traitId];
+        return value == ABSENT_TRAIT ? defaultValue : (value & 0xFF) / 254f;
+    }
+    
+    /**
+     * Quantiza os traços em um byte cada (0 a 254; 255 = ausente)
+     */
+    private static byte[] compact(Genome genome) {
+        if (genome == null) return null;
+        
+        float[] values = genome.values;
+        byte[] compact = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            float value = values[i];
+            compact[i] = value != value ? ABSENT_TRAIT : (byte) Math.round(value * 254f);
+        }
+        return compact;
+    }
+    
+    public boolean contains(long id) {
+        return nodes.containsKey(id);
+    }
+    
+    /**
+     * Número de nós mantidos
+     */
+    public int size() {
+        return nodes.size;
+    }
+    
+    public long getTotalBirths() {
+        return totalBirths;
+    }
+    
+    public long getRemovedNodes() {
+        return removedNodes;
+    }
+}
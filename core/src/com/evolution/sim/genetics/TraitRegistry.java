@@ -0,0 +1,82 @@
+package com.evolution.sim.genetics;
+
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+import java.util.Arrays;
+
+/**
+ * Registro dos traços genéticos conhecidos. Cada traço tem um id fixo, que é
+ * o índice do seu valor no array do Genome. Os traços básicos têm ids
+ * constantes; novos traços podem ser registrados pelo nome em tempo de execução.
+ */
+public final class TraitRegistry {
+    // Traços básicos
+    public static final int SIZE = 0;
+    public static final int SPEED = 1;
+    public static final int ENERGY = 2;
+    public static final int PERCEPTION = 3;
+    public static final int STRENGTH = 4;
+    public static final int REPRODUCTION = 5;
+    public static final int ADAPTION = 6;
+    public static final int CANNIBALISM = 7;
+    
+    // Nomes por id e ids por nome (substituídos por cópias a cada registro)
+    private static volatile String[] names = {
+        "size", "speed", "energy", "perception", "strength", "reproduction", "adaption", "cannibalism"
+    };
+    private static volatile ObjectIntMap<String> ids = buildIds(names);
+    
+    private TraitRegistry() {
+    }
+    
+    /**
+     * Obtém o id de um traço pelo nome
+     * @param name Nome do traço
+     * @return Id do traço ou -1 se não estiver registrado
+     */
+    public static int idOf(String name) {
+        return ids.get(name, -1);
+    }
+    
+    /**
+     * Obtém o id de um traço, registrando-o se ainda não existir
+     * @param name Nome do traço
+     * @return Id do traço
+     */
+    public static synchronized int register(String name) {
+        int id = ids.get(name, -1);
+        if (id >= 0) {
+            return id;
+        }
+        
+        String[] newNames = Arrays.copyOf(names, names.length + 1);
+        newNames[names.length] = name;
+        ids = buildIds(newNames);
+        names = newNames;
+        return newNames.length - 1;
+    }
+    
+    /**
+     * Obtém o nome de um traço
+     * @param id Id do traço
+     * @return Nome do traço
+     */
+    public static String nameOf(int id) {
+        return names[id];
+    }
+    
+    /**
+     * Número de traços registrados
+     */
+    public static int count() {
+        return names.length;
+    }
+    
+    private static ObjectIntMap<String> buildIds(String[] names) {
+        ObjectIntMap<String> map = new ObjectIntMap<>(names.length);
+        for (int i = 0; i < names.length; i++) {
+            map.put(names[i], i);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,257 @@
+package com.evolution.sim.genetics;
+
+import java.util.Arrays;
+
+/**
+ * Estatísticas dos traços de um grupo de genomas, mantidas de forma incremental.
+ * Cada genoma é adicionado no nascimento e removido na morte, e a leitura de
+ * média, variância, mínimo, máximo e histograma não depende do tamanho da população.
+ *
+ * A média e a variância usam acumuladores de Welford (com remoção e fusão pela
+ * fórmula de Chan). O mínimo e o máximo não podem ser removidos de forma exata,
+ * então são derivados do histograma, com a resolução de uma faixa.
+ *
+ * Os traços valem entre 0 e 1; traços ausentes (NaN) não entram na contagem.
+ * Não é seguro para uso concorrente.
+ */
+public class TraitStatistics {
+    // Número de faixas dos histogramas
+    public static final int DEFAULT_BINS = 32;
+    
+    private final int bins;
+    
+    // Acumuladores por traço (índice = id do TraitRegistry)
+    private long[] counts;
+    private double[] means;
+    private double[] squaredDeviations;
+    
+    // Histogramas por traço, linha a linha (traço * bins + faixa)
+    private int[] histograms;
+    
+    // Número de genomas adicionados
+    private long genomes;
+    
+    public TraitStatistics() {
+        this(DEFAULT_BINS);
+    }
+    
+    public TraitStatistics(int bins) {
+        if (bins < 1) {
+            throw new IllegalArgumentException("Número de faixas inválido: " + bins);
+        }
+        
+        this.bins = bins;
+        counts = new long[0];
+        means = new double[0];
+        squaredDeviations = new double[0];
+        histograms = new int[0];
+        ensureTraits(TraitRegistry.count());
+    }
+    
+    /**
+     * Adiciona os traços de um genoma
+     * @param genome Genoma que entrou no grupo (null é ignorado)
+     */
+    public void add(Genome genome) {
+        if (genome == null) return;
+        
+        float[] values = genome.values;
+        ensureTraits(values.length);
+        
+        for (int trait = 0; trait < values.length; trait++) {
+            float value = values[trait];
+            if (value != value) continue; // NaN = ausente
+            
+            long n = ++counts[trait];
+            double delta = value - means[trait];
+            means[trait] += delta / n;
+            squaredDeviations[trait] += delta * (value - means[trait]);
+            histograms[trait * bins + binOf(value)]++;
+        }
+        genomes++;
+    }
+    
+    /**
+     * Remove os traços de um genoma adicionado antes
+     * @param genome Genoma que saiu do grupo (null é ignorado)
+     */
+    public void remove(Genome genome) {
+        if (genome == null) return;
+        
+        float[] values = genome.values;
+        int length = Math.min(values.length, counts.length);
+        
+        for (int trait = 0; trait < length; trait++) {
+            float value = values[trait];
+            if (value != value || counts[trait] == 0) continue;
+            
+            long n = --counts[trait];
+            if (n == 0) {
+                // Zerar para não acumular erro de arredondamento
+                means[trait] = 0.0;
+                squaredDeviations[trait] = 0.0;
+            } else {
+                double delta = value - means[trait];
+                means[trait] -= delta / n;
+                squaredDeviations[trait] = Math.max(0.0, squaredDeviations[trait] - delta * (value - means[trait]));
+            }
+            histograms[trait * bins + binOf(value)]--;
+        }
+        if (genomes > 0) {
+            genomes--;
+        }
+    }
+    
+    /**
+     * Soma as estatísticas de outro grupo a estas
+     * @param other Estatísticas com o mesmo número de faixas
+     */
+    public void merge(TraitStatistics other) {
+        if (other.bins != bins) {
+            throw new IllegalArgumentException("Histogramas com números de faixas diferentes: " + other.bins + " e " + bins);
+        }
+        
+        ensureTraits(other.counts.length);
+        
+        for (int trait = 0; trait < other.counts.length; trait++) {
+            long otherCount = other.counts[trait];
+            if (otherCount == 0) continue;
+            
+            long count = counts[trait];
+            long total = count + otherCount;
+            double delta = other.means[trait] - means[trait];
+            
+            means[trait] += delta * otherCount / total;
+            squaredDeviations[trait] += other.squaredDeviations[trait] + delta * delta * count * otherCount / total;
+            counts[trait] = total;
+            
+            for (int bin = 0, offset = trait * bins; bin < bins; bin++) {
+                histograms[offset + bin] += other.histograms[offset + bin];
+            }
+        }
+        genomes += other.genomes;
+    }
+    
+    /**
+     * Remove todos os genomas
+     */
+    public void clear() {
+        Arrays.fill(counts, 0L);
+        Arrays.fill(means, 0.0);
+        Arrays.fill(squaredDeviations, 0.0);
+        Arrays.fill(histograms, 0);
+        genomes = 0;
+    }
+    
+    /**
+     * Obtém a média de um traço
+     * @param traitId Id do traço (TraitRegistry)
+     * @return Média, ou NaN se nenhum genoma tiver o traço
+     */
+    public float getMean(int traitId) {
+        return getCount(traitId) == 0 ? Float.NaN : (float) means[traitId];
+    }
+    
+    /**
+     * Obtém a variância populacional de um traço
+     * @param traitId Id do traço (TraitRegistry)
+     * @return Variância, ou NaN se nenhum genoma tiver o traço
+     */
+    public float getVariance(int traitId) {
+        long count = getCount(traitId);
+        return count == 0 ? Float.NaN : (float) (squaredDeviations[traitId] / count);
+    }
+    
+    /**
+     * Obtém o desvio padrão populacional de um traço
+     * @param traitId Id do traço (TraitRegistry)
+     * @return Desvio padrão, ou NaN se nenhum genoma tiver o traço
+     */
+    public float getStandardDeviation(int traitId) {
+        return (float) Math.sqrt(getVariance(traitId));
+    }
+    
+    /**
+     * Obtém o limite inferior da menor faixa ocupada de um traço
+     * @param traitId Id do traço (TraitRegistry)
+     * @return Mínimo aproximado, ou NaN se nenhum genoma tiver o traço
+     */
+    public float getMin(int traitId) {
+        if (getCount(traitId) == 0) return Float.NaN;
+        
+        int offset = traitId * bins;
+        for (int bin = 0; bin < bins; bin++) {
+            if (histograms[offset + bin] > 0) {
+                return (float) bin / bins;
+            }
+        }
+        return Float.NaN;
+    }
+    
+    /**
+     * Obtém o limite superior da maior faixa ocupada de um traço
+     * @param traitId Id do traço (TraitRegistry)
+     * @return Máximo aproximado, ou NaN se nenhum genoma tiver o traço
+     */
+    public float getMax(int traitId) {
+        if (getCount(traitId) == 0) return Float.NaN;
+        
+        int offset = traitId * bins;
+        for (int bin = bins - 1; bin >= 0; bin--) {
+            if (histograms[offset + bin] > 0) {
+                return (float) (bin + 1) / bins;
+            }
+        }
+        return Float.NaN;
+    }
+    
+    /**
+     * Copia o histograma de um traço
+     * @param traitId Id do traço (TraitRegistry)
+     * @param out Array com pelo menos getBins() posições
+     * @return O próprio array de saída
+     */
+    public int[] getHistogram(int traitId, int[] out) {
+        if (traitId < 0 || traitId >= counts.length) {
+            Arrays.fill(out, 0, bins, 0);
+        } else {
+            System.arraycopy(histograms, traitId * bins, out, 0, bins);
+        }
+        return out;
+    }
+    
+    /**
+     * Obtém o número de genomas que possuem um traço
+     * @param traitId Id do traço (TraitRegistry)
+     */
+    public long getCount(int traitId) {
+        return traitId < 0 || traitId >= counts.length ? 0 : counts[traitId];
+    }
+    
+    private int binOf(float value) {
+        int bin = (int) (value * bins);
+        return bin < 0 ? 0 : (bin >= bins ? bins - 1 : bin);
+    }
+    
+    private void ensureTraits(int traits) {
+        if (traits <= counts.length) return;
+        
+        counts = Arrays.copyOf(counts, traits);
+        means = Arrays.copyOf(means, traits);
+        squaredDeviations = Arrays.copyOf(squaredDeviations, traits);
+        histograms = Arrays.copyOf(histograms, traits * bins);
+    }
+    
+    // Getters
+    public int getBins() {
+        return bins;
+    }
+    
+    public int getTraitCount() {
+        return counts.length;
+    }
+    
+    public long getGenomeCount() {
+        return genomes;
+    }
+}
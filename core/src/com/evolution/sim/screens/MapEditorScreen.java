@@ -38,23 +38,28 @@ public class MapEditorScreen implements Screen, GestureDetector.GestureListener
     
     // Constantes
     private static final int TILE_SIZE = 32;
-    private static final int MAP_WIDTH = 50;
-    private static final int MAP_HEIGHT = 50;
     
     // Controle da câmera
     private float zoom = 1.0f;
     private Texture[] terrainTextures;
     
+    // Linha de terreno visível, reutilizada a cada quadro
+    private byte[] terrainRow = new byte[0];
+    
     public MapEditorScreen(EvolutionSim game) {
         this.game = game;
         
         // Inicializar câmera
         camera = new OrthographicCamera();
         camera.setToOrtho(false, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
-        camera.position.set(MAP_WIDTH * TILE_SIZE / 2f, MAP_HEIGHT * TILE_SIZE / 2f, 0);
         
-        // Inicializar mapa
-        worldMap = new WorldMap(MAP_WIDTH, MAP_HEIGHT);
+        // Inicializar mapa (em chunks se for grande demais para a memória) e carregar o salvo, se existir.
+        // Não espera gravações em andamento: a troca atômica do arquivo garante que ele esteja inteiro.
+        worldMap = WorldMap.create(game.mapWidth, game.mapHeight);
+        if (!worldMap.loadOrImport("worldmap.map", "worldmap.json", game.mapSaver)) {
+            Gdx.app.log("MapEditor", "Nenhum mapa salvo encontrado");
+        }
+        camera.position.set(worldMap.getWidth() * TILE_SIZE / 2f, worldMap.getHeight() * TILE_SIZE / 2f, 0);
         
         // Inicializar entrada de toque
         Gdx.input.setInputProcessor(new GestureDetector(this));
@@ -151,10 +156,14 @@ public class MapEditorScreen implements Screen, GestureDetector.GestureListener
         game.batch.setProjectionMatrix(camera.combined);
         game.batch.begin();
         
-        for (int x = startX; x <= endX; x++) {
-            for (int y = startY; y <= endY; y++) {
-                TerrainType terrain = worldMap.getTerrainAt(x, y);
-                int index = terrain.ordinal();
+        int visibleWidth = endX - startX + 1;
+        if (terrainRow.length < visibleWidth) {
+            terrainRow = new byte[visibleWidth];
+        }
+        for (int y = startY; y <= endY; y++) {
+            worldMap.getTerrainRow(y, startX, visibleWidth, terrainRow);
+            for (int x = startX; x <= endX; x++) {
+                int index = terrainRow[x - startX];
                 
                 if (index >= 0 && index < terrainTextures.length) {
                     game.batch.draw(
@@ -201,18 +210,13 @@ public class MapEditorScreen implements Screen, GestureDetector.GestureListener
     
     @Override
     public void pause() {
-        // Salvar mapa automaticamente
-        worldMap.saveToFile("worldmap.json");
+        // Salvar mapa automaticamente, sem travar a renderização
+        game.mapSaver.requestSave(worldMap, "worldmap.map");
     }
     
     @Override
     public void resume() {
-        // Carregar mapa se existir
-        try {
-            worldMap.loadFromFile("worldmap.json");
-        } catch (Exception e) {
-            Gdx.app.log("MapEditor", "Nenhum mapa salvo encontrado");
-        }
+        // O mapa em memória já é o estado mais recente; o salvo no pause() pode ainda estar sendo gravado
     }
     
     @Override
@@ -6,6 +6,7 @@ import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
@@ -17,13 +18,13 @@ import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
-import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.evolution.sim.EvolutionSim;
-import com.evolution.sim.entities.Cannibal;
-import com.evolution.sim.entities.Creature;
-import com.evolution.sim.entities.Predator;
-import com.evolution.sim.entities.Prey;
+import com.evolution.sim.entities.CreatureType;
+import com.evolution.sim.simulation.RenderSnapshot;
+import com.evolution.sim.simulation.SimulationRunner;
+import com.evolution.sim.simulation.SimulationWorld;
+import com.evolution.sim.world.TerrainGenerator;
 import com.evolution.sim.world.TerrainType;
 import com.evolution.sim.world.WorldMap;
 
@@ -38,29 +39,25 @@ public class SimulationScreen implements Screen, GestureDetector.GestureListener
     private BitmapFont font;
     private Stage uiStage;
     
-    // Criaturas na simulação
-    private Array<Creature> creatures;
+    // Motor da simulação, executado em outra thread (a tela apenas observa e desenha)
+    private SimulationWorld world;
+    private SimulationRunner runner;
     
-    // Estatísticas
-    private int preyCount;
-    private int predatorCount;
-    private int cannibalCount;
+    // Cópia do estado usada no quadro atual
+    private RenderSnapshot snapshot;
+    private final Color creatureColor = new Color();
     
     // Controle de câmera
     private float zoom = 1.0f;
     
     // Constantes
-    private static final int TILE_SIZE = 32;
-    private static final int INITIAL_PREY = 20;
-    private static final int INITIAL_PREDATORS = 8;
-    private static final int INITIAL_CANNIBALS = 3;
+    private static final int TILE_SIZE = SimulationWorld.TILE_SIZE;
     
     // Textures
     private Texture[] terrainTextures;
     
-    // Estado da simulação
-    private boolean paused = false;
-    private float simulationSpeed = 1.0f;
+    // Linha de terreno visível, reutilizada a cada quadro
+    private byte[] terrainRow = new byte[0];
     
     public SimulationScreen(EvolutionSim game) {
         this.game = game;
@@ -72,8 +69,10 @@ public class SimulationScreen implements Screen, GestureDetector.GestureListener
         // Carregar ou criar mapa
         loadOrCreateWorld();
         
-        // Inicializar criaturas
-        creatures = new Array<>();
+        // Inicializar motor da simulação
+        world = new SimulationWorld(worldMap);
+        world.setParallelUpdate(true);
+        runner = new SimulationRunner(world);
         
         // Inicializar interface de usuário
         createUI();
@@ -91,17 +90,19 @@ public class SimulationScreen implements Screen, GestureDetector.GestureListener
         // Configurar detector de gestos
         Gdx.input.setInputProcessor(new GestureDetector(this));
         
-        // Povoar o mundo com criaturas iniciais
-        populateWorld();
+        // Povoar o mundo com criaturas iniciais e iniciar a thread da simulação
+        world.populate();
+        runner.start();
     }
     
     private void loadOrCreateWorld() {
         // Tentar carregar um mapa existente
-        worldMap = new WorldMap(50, 50);
-        try {
-            worldMap.loadFromFile("worldmap.json");
+        worldMap = WorldMap.create(game.mapWidth, game.mapHeight);
+        
+        // Sem esperar gravações em andamento: a troca atômica do arquivo garante que ele esteja inteiro
+        if (worldMap.loadOrImport("worldmap.map", "worldmap.json", game.mapSaver)) {
             Gdx.app.log("Simulation", "Mapa carregado com sucesso");
-        } catch (Exception e) {
+        } else {
             Gdx.app.log("Simulation", "Não foi possível carregar o mapa. Criando um novo...");
             
             // Gerar um mapa aleatório simples
@@ -113,57 +114,13 @@ public class SimulationScreen implements Screen, GestureDetector.GestureListener
     }
     
     private void generateRandomMap() {
-        // Preencher com grama primeiro
-        worldMap.fillWith(TerrainType.GRASS);
-        
-        // Adicionar terrenos variados
-        addRandomTerrainPatches(TerrainType.WATER, 0.1f, 5, 10);
-        addRandomTerrainPatches(TerrainType.FOREST, 0.2f, 3, 8);
-        addRandomTerrainPatches(TerrainType.MOUNTAIN, 0.05f, 2, 5);
-        addRandomTerrainPatches(TerrainType.DIRT, 0.15f, 2, 6);
-        addRandomTerrainPatches(TerrainType.SAND, 0.08f, 3, 7);
-        addRandomTerrainPatches(TerrainType.SNOW, 0.05f, 1, 3);
+        // Gerar o terreno a partir de uma semente (a mesma semente gera o mesmo mapa)
+        long seed = MathUtils.random.nextLong();
+        worldMap.generate(new TerrainGenerator(seed));
+        Gdx.app.log("Simulation", "Mapa gerado com a semente " + seed);
         
         // Salvar o mapa gerado
-        worldMap.saveToFile("worldmap.json");
-    }
-    
-    private void addRandomTerrainPatches(TerrainType terrainType, float coverage, int minSize, int maxSize) {
-        int mapWidth = worldMap.getWidth();
-        int mapHeight = worldMap.getHeight();
-        
-        // Calcular número de manchas
-        int totalTiles = mapWidth * mapHeight;
-        int targetTileCount = (int)(totalTiles * coverage);
-        int currentTileCount = 0;
-        
-        while (currentTileCount < targetTileCount) {
-            // Posição aleatória
-            int centerX = MathUtils.random(0, mapWidth - 1);
-            int centerY = MathUtils.random(0, mapHeight - 1);
-            
-            // Tamanho aleatório para a mancha
-            int patchSize = MathUtils.random(minSize, maxSize);
-            
-            // Criar mancha
-            for (int y = -patchSize; y <= patchSize; y++) {
-                for (int x = -patchSize; x <= patchSize; x++) {
-                    // Calcular distância ao centro (forma circular)
-                    float distance = (float) Math.sqrt(x*x + y*y);
-                    
-                    // Verificar se está dentro do raio e dentro dos limites do mapa
-                    if (distance <= patchSize && MathUtils.random() < (1f - distance/patchSize)) {
-                        int tileX = centerX + x;
-                        int tileY = centerY + y;
-                        
-                        if (tileX >= 0 && tileX < mapWidth && tileY >= 0 && tileY < mapHeight) {
-                            worldMap.setTerrainAt(tileX, tileY, terrainType);
-                            currentTileCount++;
-                        }
-                    }
-                }
-            }
-        }
+        game.mapSaver.requestSave(worldMap, "worldmap.map");
     }
     
     private void createTerrainTextures() {
@@ -198,86 +155,6 @@ public class SimulationScreen implements Screen, GestureDetector.GestureListener
         uiStage.addActor(table);
     }
     
-    private void populateWorld() {
-        // Limpar lista de criaturas
-        creatures.clear();
-        
-        // Adicionar presas iniciais
-        for (int i = 0; i < INITIAL_PREY; i++) {
-            addRandomCreature(CreatureType.PREY);
-        }
-        
-        // Adicionar predadores iniciais
-        for (int i = 0; i < INITIAL_PREDATORS; i++) {
-            addRandomCreature(CreatureType.PREDATOR);
-        }
-        
-        // Adicionar canibais iniciais
-        for (int i = 0; i < INITIAL_CANNIBALS; i++) {
-            addRandomCreature(CreatureType.CANNIBAL);
-        }
-        
-        // Atualizar contadores
-        updateCreatureCounts();
-    }
-    
-    private enum CreatureType {
-        PREY, PREDATOR, CANNIBAL
-    }
-    
-    private void addRandomCreature(CreatureType type) {
-        // Encontrar posição válida (não na água)
-        int tileX, tileY;
-        TerrainType terrain;
-        
-        do {
-            tileX = MathUtils.random(0, worldMap.getWidth() - 1);
-            tileY = MathUtils.random(0, worldMap.getHeight() - 1);
-            terrain = worldMap.getTerrainAt(tileX, tileY);
-        } while (terrain == TerrainType.WATER);
-        
-        // Converter para posição em pixels
-        float posX = tileX * TILE_SIZE + TILE_SIZE/2f;
-        float posY = tileY * TILE_SIZE + TILE_SIZE/2f;
-        
-        // Criar criatura baseada no tipo
-        Creature creature = null;
-        switch (type) {
-            case PREY:
-                creature = new Prey(posX, posY, worldMap);
-                break;
-            case PREDATOR:
-                creature = new Predator(posX, posY, worldMap);
-                break;
-            case CANNIBAL:
-                creature = new Cannibal(posX, posY, worldMap);
-                break;
-        }
-        
-        // Adicionar à lista
-        if (creature != null) {
-            creatures.add(creature);
-        }
-    }
-    
-    private void updateCreatureCounts() {
-        preyCount = 0;
-        predatorCount = 0;
-        cannibalCount = 0;
-        
-        for (Creature creature : creatures) {
-            if (creature.isAlive()) {
-                if (creature instanceof Prey) {
-                    preyCount++;
-                } else if (creature instanceof Cannibal) {
-                    cannibalCount++;
-                } else if (creature instanceof Predator) {
-                    predatorCount++;
-                }
-            }
-        }
-    }
-    
     @Override
     public void render(float delta) {
         // Limpar tela
@@ -290,10 +167,13 @@ public class SimulationScreen implements Screen, GestureDetector.GestureListener
         // Atualizar câmera
         camera.update();
         
-        // Atualizar simulação se não estiver pausada
-        if (!paused) {
-            updateSimulation(delta * simulationSpeed);
-        }
+        // Criaturas longe da área vista pensam com menos frequência
+        float viewWidth = camera.viewportWidth * camera.zoom;
+        float viewHeight = camera.viewportHeight * camera.zoom;
+        runner.setView(camera.position.x - viewWidth / 2f, camera.position.y - viewHeight / 2f, viewWidth, viewHeight);
+        
+        // A simulação avança na própria thread; desenhar a cópia mais recente
+        snapshot = runner.acquireSnapshot();
         
         // Renderizar terreno
         renderTerrain();
@@ -308,26 +188,26 @@ public class SimulationScreen implements Screen, GestureDetector.GestureListener
     private void handleInput() {
         // Pausar/continuar simulação
         if (Gdx.input.isKeyJustPressed(Input.Keys.SPACE)) {
-            paused = !paused;
+            runner.setPaused(!runner.isPaused());
         }
         
         // Controlar velocidade da simulação
         if (Gdx.input.isKeyJustPressed(Input.Keys.PLUS) || Gdx.input.isKeyJustPressed(Input.Keys.EQUALS)) {
-            simulationSpeed = Math.min(simulationSpeed * 1.5f, 10.0f);
+            runner.setSpeed(runner.getSpeed() * 1.5f);
         }
         if (Gdx.input.isKeyJustPressed(Input.Keys.MINUS)) {
-            simulationSpeed = Math.max(simulationSpeed * 0.75f, 0.1f);
+            runner.setSpeed(runner.getSpeed() * 0.75f);
         }
         
         // Adicionar novas criaturas
         if (Gdx.input.isKeyJustPressed(Input.Keys.NUM_1)) {
-            addRandomCreature(CreatureType.PREY);
+            runner.submit(simulation -> simulation.addRandomCreature(CreatureType.PREY));
         }
         if (Gdx.input.isKeyJustPressed(Input.Keys.NUM_2)) {
-            addRandomCreature(CreatureType.PREDATOR);
+            runner.submit(simulation -> simulation.addRandomCreature(CreatureType.PREDATOR));
         }
         if (Gdx.input.isKeyJustPressed(Input.Keys.NUM_3)) {
-            addRandomCreature(CreatureType.CANNIBAL);
+            runner.submit(simulation -> simulation.addRandomCreature(CreatureType.CANNIBAL));
         }
         
         // Voltar ao editor de mapa
@@ -336,153 +216,6 @@ public class SimulationScreen implements Screen, GestureDetector.GestureListener
         }
     }
     
-    private void updateSimulation(float delta) {
-        // Atualizar cada criatura
-        for (int i = 0; i < creatures.size; i++) {
-            Creature creature = creatures.get(i);
-            
-            if (creature.isAlive()) {
-                creature.update(delta);
-            }
-        }
-        
-        // Verificar interações entre criaturas
-        processCreatureInteractions();
-        
-        // Remover criaturas mortas e adicionar novos nascimentos
-        processReproduction();
-        
-        // Manter população mínima
-        maintainMinimumPopulation();
-        
-        // Atualizar contadores
-        updateCreatureCounts();
-    }
-    
-    private void processCreatureInteractions() {
-        // Este é um sistema simples de interação para demonstração
-        // Uma implementação completa usaria um sistema de colisão mais eficiente
-        
-        for (int i = 0; i < creatures.size; i++) {
-            Creature creature1 = creatures.get(i);
-            
-            if (!creature1.isAlive()) continue;
-            
-            for (int j = i + 1; j < creatures.size; j++) {
-                Creature creature2 = creatures.get(j);
-                
-                if (!creature2.isAlive()) continue;
-                
-                // Verificar colisão
-                if (creature1.isCollidingWith(creature2)) {
-                    // Processar interação baseada nos tipos
-                    if (creature1 instanceof Predator && creature2 instanceof Prey) {
-                        // Predador come presa
-                        processPredation((Predator)creature1, (Prey)creature2);
-                    } 
-                    else if (creature1 instanceof Prey && creature2 instanceof Predator) {
-                        // Predador come presa
-                        processPredation((Predator)creature2, (Prey)creature1);
-                    }
-                    else if (creature1 instanceof Cannibal && creature2 instanceof Predator) {
-                        // Canibal come predador
-                        processPredation((Predator)creature1, creature2);
-                    }
-                    else if (creature1 instanceof Predator && creature2 instanceof Cannibal) {
-                        // Canibal come predador
-                        processPredation((Predator)creature2, creature1);
-                    }
-                }
-            }
-        }
-    }
-    
-    private void processPredation(Predator predator, Creature prey) {
-        // Chance de sucesso baseada em força vs. velocidade
-        float preySpeed = prey instanceof Prey ? ((Prey)prey).getSpeed() : 0;
-        float predatorStrength = predator.getStrength();
-        
-        // Fórmula simples para chance de sucesso
-        float successChance = 0.6f + (predatorStrength * 0.4f) - (preySpeed * 0.3f);
-        
-        if (MathUtils.random() < successChance) {
-            // Predação bem-sucedida
-            float energyGain = prey.getSize() * 15f; // Energia baseada no tamanho
-            predator.addEnergy(energyGain);
-            prey.die();
-        }
-    }
-    
-    private void processReproduction() {
-        // Coletar novas criaturas para adicionar após o loop
-        Array<Creature> newCreatures = new Array<>();
-        
-        // Remover criaturas mortas e processar reprodução
-        for (int i = creatures.size - 1; i >= 0; i--) {
-            Creature creature = creatures.get(i);
-            
-            // Remover mortos
-            if (!creature.isAlive()) {
-                creatures.removeIndex(i);
-                continue;
-            }
-            
-            // Chance de reprodução para criaturas com energia suficiente
-            if (creature.canReproduce() && MathUtils.random() < 0.01f) {
-                // Encontrar parceiro (se for da mesma espécie)
-                Creature partner = findReproductionPartner(creature);
-                
-                // Criar novo descendente
-                Creature child = creature.reproduce(partner);
-                
-                if (child != null) {
-                    newCreatures.add(child);
-                }
-            }
-        }
-        
-        // Adicionar novos nascimentos
-        creatures.addAll(newCreatures);
-    }
-    
-    private Creature findReproductionPartner(Creature creature) {
-        // Proximidade máxima para reprodução
-        float maxDistance = 100f;
-        
-        for (Creature other : creatures) {
-            // Verificar se é da mesma espécie, está vivo e não é o mesmo
-            if (other != creature && other.isAlive() && 
-                other.getClass() == creature.getClass() && 
-                other.canReproduce()) {
-                
-                // Verificar distância
-                float distance = creature.distanceTo(other);
-                if (distance < maxDistance) {
-                    return other;
-                }
-            }
-        }
-        
-        return null; // Nenhum parceiro encontrado
-    }
-    
-    private void maintainMinimumPopulation() {
-        // Manter população mínima de cada tipo
-        if (preyCount < 5) {
-            for (int i = 0; i < 3; i++) {
-                addRandomCreature(CreatureType.PREY);
-            }
-        }
-        
-        if (predatorCount < 2) {
-            addRandomCreature(CreatureType.PREDATOR);
-        }
-        
-        if (cannibalCount < 1) {
-            addRandomCreature(CreatureType.CANNIBAL);
-        }
-    }
-    
     private void renderTerrain() {
         // Configurar batch com matriz da câmera
         game.batch.setProjectionMatrix(camera.combined);
@@ -494,11 +227,15 @@ public class SimulationScreen implements Screen, GestureDetector.GestureListener
         int endX = Math.min(worldMap.getWidth() - 1, (int)((camera.position.x + camera.viewportWidth/2 * camera.zoom) / TILE_SIZE) + 1);
         int endY = Math.min(worldMap.getHeight() - 1, (int)((camera.position.y + camera.viewportHeight/2 * camera.zoom) / TILE_SIZE) + 1);
         
-        // Renderizar terreno visível
-        for (int x = startX; x <= endX; x++) {
-            for (int y = startY; y <= endY; y++) {
-                TerrainType terrain = worldMap.getTerrainAt(x, y);
-                int index = terrain.ordinal();
+        // Renderizar terreno visível, linha a linha
+        int visibleWidth = endX - startX + 1;
+        if (terrainRow.length < visibleWidth) {
+            terrainRow = new byte[visibleWidth];
+        }
+        for (int y = startY; y <= endY; y++) {
+            worldMap.getTerrainRow(y, startX, visibleWidth, terrainRow);
+            for (int x = startX; x <= endX; x++) {
+                int index = terrainRow[x - startX];
                 
                 if (index >= 0 && index < terrainTextures.length) {
                     game.batch.draw(
@@ -521,22 +258,26 @@ public class SimulationScreen implements Screen, GestureDetector.GestureListener
         
         // Renderizar corpos das criaturas
         shapeRenderer.begin(ShapeType.Filled);
-        for (Creature creature : creatures) {
-            if (creature.isAlive()) {
-                creature.renderShape(shapeRenderer);
-            }
+        for (int i = 0; i < snapshot.getCount(); i++) {
+            float x = snapshot.getX(i);
+            float y = snapshot.getY(i);
+            float size = snapshot.getSize(i);
+            float rotation = snapshot.getRotation(i);
+            
+            Color.abgr8888ToColor(creatureColor, snapshot.getColor(i));
+            shapeRenderer.setColor(creatureColor);
+            shapeRenderer.circle(x, y, size);
+            
+            // Desenhar direção
+            shapeRenderer.line(x, y, x + MathUtils.cosDeg(rotation) * size * 1.5f, y + MathUtils.sinDeg(rotation) * size * 1.5f);
         }
         shapeRenderer.end();
         
         // Renderizar contornos
         shapeRenderer.begin(ShapeType.Line);
         shapeRenderer.setColor(Color.WHITE);
-        for (Creature creature : creatures) {
-            if (creature.isAlive()) {
-                Vector2 pos = creature.getPosition();
-                float size = creature.getSize();
-                shapeRenderer.circle(pos.x, pos.y, size + 0.5f);
-            }
+        for (int i = 0; i < snapshot.getCount(); i++) {
+            shapeRenderer.circle(snapshot.getX(i), snapshot.getY(i), snapshot.getSize(i) + 0.5f);
         }
         shapeRenderer.end();
     }
@@ -549,9 +290,12 @@ public class SimulationScreen implements Screen, GestureDetector.GestureListener
         game.batch.begin();
         
         // Informações da simulação
-        String status = paused ? "PAUSADO" : "EM EXECUÇÃO";
-        String speedText = "Velocidade: " + String.format("%.1f", simulationSpeed) + "x";
-        String statsText = "Presas: " + preyCount + " | Predadores: " + predatorCount + " | Canibais: " + cannibalCount;
+        String status = runner.isPaused() ? "PAUSADO" : "EM EXECUÇÃO";
+        String speedText = "Velocidade: " + String.format("%.1f", runner.getSpeed()) + "x"
+                + " (real: " + String.format("%.1f", snapshot.getEffectiveSpeed()) + "x)";
+        String statsText = "Presas: " + snapshot.getAlive(CreatureType.PREY)
+                + " | Predadores: " + snapshot.getAlive(CreatureType.PREDATOR)
+                + " | Canibais: " + snapshot.getAlive(CreatureType.CANNIBAL);
         String controlsText = "ESPAÇO: Pausar | +/-: Velocidade | 1/2/3: Adicionar criaturas | ESC: Editor de mapa";
         
         font.draw(game.batch, status, 10, Gdx.graphics.getHeight() - 10);
@@ -576,7 +320,7 @@ public class SimulationScreen implements Screen, GestureDetector.GestureListener
     
     @Override
     public void pause() {
-        paused = true;
+        runner.setPaused(true);
     }
     
     @Override
@@ -591,11 +335,13 @@ public class SimulationScreen implements Screen, GestureDetector.GestureListener
     
     @Override
     public void hide() {
-        // Limpeza ao esconder a tela
+        // Parar a thread da simulação ao sair da tela
+        runner.stop();
     }
     
     @Override
     public void dispose() {
+        runner.stop();
         shapeRenderer.dispose();
         font.dispose();
         uiStage.dispose();
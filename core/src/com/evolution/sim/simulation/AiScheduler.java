@@ -0,0 +1,169 @@
+package com.evolution.sim.simulation;
+
+import com.evolution.sim.entities.CreatureStore;
+
+import java.util.Arrays;
+
+/**
+ * Escalonador de nível de detalhe para o comportamento das criaturas.
+ * Criaturas dentro da área vista pela câmera pensam em todo tick; fora dela,
+ * a percepção e a decisão rodam em fatias alternadas (round-robin pelo slot),
+ * com um intervalo configurável por faixa de distância até a área vista.
+ * Regiões esparsas (poucas criaturas por célula) podem ter o intervalo
+ * multiplicado. O movimento continua sendo integrado em todo tick.
+ *
+ * Sem área vista definida (ex.: execução headless), todas pensam em todo tick.
+ */
+public class AiScheduler {
+    // Lado das células usadas para medir a densidade, em pixels
+    private static final float DENSITY_CELL_SIZE = 256f;
+    private static final int DENSITY_TABLE_SIZE = 4096;
+    
+    // Faixas de distância (em pixels, a partir da borda da área vista) e intervalos em ticks.
+    // bandIntervals[i] vale até bandLimits[i]; o último intervalo vale além da última faixa.
+    private float[] bandLimits = {0f, 512f, 2048f};
+    private int[] bandIntervals = {1, 2, 4, 8};
+    
+    // Regiões esparsas: células com no máximo sparseThreshold criaturas (0 desativa)
+    private int sparseThreshold = 2;
+    private int sparseMultiplier = 2;
+    
+    // Área vista pedida pela tela
+    private boolean viewSet;
+    private float viewX, viewY, viewWidth, viewHeight;
+    
+    // Estado copiado no início do tick, lido pelas threads de atualização
+    private boolean tickViewSet;
+    private float minX, minY, maxX, maxY;
+    private final int[] density = new int[DENSITY_TABLE_SIZE];
+    private long tick;
+    
+    /**
+     * Prepara um tick: copia a área vista e mede a densidade das criaturas
+     * @param store Armazenamento das criaturas
+     */
+    public void beginTick(CreatureStore store) {
+        tick++;
+        tickViewSet = viewSet;
+        if (!tickViewSet) return;
+        
+        minX = viewX;
+        minY = viewY;
+        maxX = viewX + viewWidth;
+        maxY = viewY + viewHeight;
+        
+        if (sparseThreshold > 0) {
+            // Contagem aproximada por célula (colisões de hash só tornam regiões mais densas)
+            Arrays.fill(density, 0);
+            for (int slot = 0, count = store.size(); slot < count; slot++) {
+                density[densityBucket(store.x[slot], store.y[slot])]++;
+            }
+        }
+    }
+    
+    /**
+     * Decide se a criatura de um slot executa o comportamento neste tick.
+     * Somente leitura, pode ser chamado em paralelo após beginTick().
+     * @param slot Slot da criatura no armazenamento
+     * @param x Posição x em pixels
+     * @param y Posição y em pixels
+     * @return true se a criatura deve pensar neste tick
+     */
+    public boolean shouldThink(int slot, float x, float y) {
+        if (!tickViewSet) return true;
+        
+        int interval = getInterval(x, y);
+        return interval <= 1 || (tick + slot) % interval == 0;
+    }
+    
+    /**
+     * Intervalo em ticks entre duas execuções do comportamento em uma posição
+     * @param x Posição x em pixels
+     * @param y Posição y em pixels
+     * @return Intervalo (1 = todo tick)
+     */
+    public int getInterval(float x, float y) {
+        if (!tickViewSet) return 1;
+        
+        // Distância até a borda da área vista (0 dentro dela)
+        float dx = Math.max(0f, Math.max(minX - x, x - maxX));
+        float dy = Math.max(0f, Math.max(minY - y, y - maxY));
+        float distance2 = dx * dx + dy * dy;
+        
+        int band = 0;
+        while (band < bandLimits.length && distance2 > bandLimits[band] * bandLimits[band]) {
+            band++;
+        }
+        int interval = bandIntervals[band];
+        
+        // Regiões esparsas fora da área vista pensam ainda menos
+        if (band > 0 && sparseThreshold > 0 && density[densityBucket(x, y)] <= sparseThreshold) {
+            interval *= sparseMultiplier;
+        }
+        return interval;
+    }
+    
+    private int densityBucket(float x, float y) {
+        int cellX = (int) Math.floor(x / DENSITY_CELL_SIZE);
+        int cellY = (int) Math.floor(y / DENSITY_CELL_SIZE);
+        int hash = (cellX * 73856093) ^ (cellY * 19349663);
+        return (hash ^ (hash >>> 16)) & (DENSITY_TABLE_SIZE - 1);
+    }
+    
+    /**
+     * Define a área vista pela câmera, em pixels do mundo
+     */
+    public void setView(float x, float y, float width, float height) {
+        this.viewX = x;
+        this.viewY = y;
+        this.viewWidth = width;
+        this.viewHeight = height;
+        this.viewSet = true;
+    }
+    
+    /**
+     * Remove a área vista: todas as criaturas voltam a pensar em todo tick
+     */
+    public void clearView() {
+        this.viewSet = false;
+    }
+    
+    /**
+     * Define as faixas de distância e seus intervalos
+     * @param limits Limites crescentes das faixas, em pixels a partir da borda da área vista
+     * @param intervals Intervalo em ticks de cada faixa, com um a mais para além do último limite
+     */
+    public void setBands(float[] limits, int[] intervals) {
+        if (intervals.length != limits.length + 1) {
+            throw new IllegalArgumentException("Esperado um intervalo a mais que o número de limites");
+        }
+        for (int i = 0; i < intervals.length; i++) {
+            if (intervals[i] < 1) {
+                throw new IllegalArgumentException("Intervalo inválido: " + intervals[i]);
+            }
+            if (i > 0 && i < limits.length && limits[i] < limits[i - 1]) {
+                throw new IllegalArgumentException("Limites das faixas devem ser crescentes");
+            }
+        }
+        this.bandLimits = limits.clone();
+        this.bandIntervals = intervals.clone();
+    }
+    
+    /**
+     * Configura a redução extra em regiões esparsas
+     * @param threshold Máximo de criaturas por célula para a região ser esparsa (0 desativa)
+     * @param multiplier Fator aplicado ao intervalo nessas regiões
+     */
+    public void setSparseRegions(int threshold, int multiplier) {
+        if (multiplier < 1) {
+            throw new IllegalArgumentException("Multiplicador inválido: " + multiplier);
+        }
+        this.sparseThreshold = threshold;
+        this.sparseMultiplier = multiplier;
+    }
+    
+    // Getters
+    public boolean hasView() {
+        return viewSet;
+    }
+}
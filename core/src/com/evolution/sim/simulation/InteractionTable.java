@@ -0,0 +1,84 @@
+package com.evolution.sim.simulation;
+
+import com.evolution.sim.entities.Creature;
+import com.evolution.sim.entities.CreatureType;
+
+/**
+ * Tabela de interações entre espécies, indexada por (espécieA, espécieB).
+ * Resolver o que acontece no contato entre duas criaturas é uma única consulta
+ * a um array, e novas espécies só precisam registrar seus handlers aqui.
+ */
+public class InteractionTable {
+    
+    /**
+     * Ação executada quando duas criaturas entram em contato
+     */
+    public interface Handler {
+        /**
+         * @param first Criatura da primeira espécie registrada
+         * @param second Criatura da segunda espécie registrada
+         */
+        void interact(Creature first, Creature second);
+    }
+    
+    private final int speciesCount;
+    private final Handler[] handlers;
+    
+    // Indica se os argumentos devem ser invertidos ao chamar o handler
+    private final boolean[] swapped;
+    
+    public InteractionTable() {
+        this(CreatureType.values().length);
+    }
+    
+    public InteractionTable(int speciesCount) {
+        this.speciesCount = speciesCount;
+        this.handlers = new Handler[speciesCount * speciesCount];
+        this.swapped = new boolean[speciesCount * speciesCount];
+    }
+    
+    /**
+     * Registra o handler para o contato entre duas espécies. O par inverso
+     * (b, a) também é registrado, com os argumentos na ordem (a, b).
+     * @param first Espécie passada como primeiro argumento
+     * @param second Espécie passada como segundo argumento
+     * @param handler Ação a executar (null remove a interação)
+     */
+    public void register(CreatureType first, CreatureType second, Handler handler) {
+        int a = first.ordinal();
+        int b = second.ordinal();
+        
+        handlers[a * speciesCount + b] = handler;
+        swapped[a * speciesCount + b] = false;
+        
+        if (a != b) {
+            handlers[b * speciesCount + a] = handler;
+            swapped[b * speciesCount + a] = true;
+        }
+    }
+    
+    /**
+     * Executa a interação registrada para o par de criaturas, se houver
+     * @param creature1 Primeira criatura do contato
+     * @param creature2 Segunda criatura do contato
+     */
+    public void interact(Creature creature1, Creature creature2) {
+        int index = creature1.getSpecies() * speciesCount + creature2.getSpecies();
+        Handler handler = handlers[index];
+        
+        if (handler == null) return;
+        
+        if (swapped[index]) {
+            handler.interact(creature2, creature1);
+        } else {
+            handler.interact(creature1, creature2);
+        }
+    }
+    
+    /**
+     * Verifica se há alguma interação registrada entre duas espécies
+     */
+    public boolean hasInteraction(int species1, int species2) {
+        return handlers[species1 * speciesCount + species2] != null;
+    }
+}
@@ -0,0 +1,274 @@
+package com.evolution.sim.simulation;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.evolution.sim.entities.Creature;
+import com.evolution.sim.entities.CreatureStore;
+import com.evolution.sim.entities.PerceptionService;
+import com.evolution.sim.world.SpatialHashGrid;
+
+import java.util.Arrays;
+
+/**
+ * Índice de vizinhança reconstruído a cada tick a partir do CreatureStore.
+ * Guarda uma cópia das posições e espécies do início do tick, de forma que as
+ * consultas feitas durante a atualização (inclusive em paralelo) leiam um
+ * estado consistente, e limita o número de consultas por tick.
+ *
+ * O orçamento não é distribuído por ordem de chegada: quando há mais criaturas
+ * que consultas por tick, cada criatura consulta a cada ceil(slots / orçamento)
+ * ticks, defasada pelo seu slot (como em AiScheduler.shouldThink). Como os slots
+ * são contíguos, nenhum tick tem mais consultas que o orçamento, mesmo quando
+ * muitas criaturas nascem no mesmo tick, e quais criaturas consultam em um tick
+ * não depende da divisão entre as threads.
+ */
+public class NeighbourIndex implements PerceptionService {
+    // Tamanho das células: os alcances de percepção ficam entre 100 e 300 pixels
+    private static final float CELL_SIZE = 64f;
+    
+    private final SpatialHashGrid grid = new SpatialHashGrid();
+    private CreatureStore store;
+    
+    // Cópia do estado no início do tick, indexada por slot
+    private float[] snapshotX = new float[0];
+    private float[] snapshotY = new float[0];
+    private int[] snapshotSpecies = new int[0];
+    private int snapshotCount;
+    
+    // Orçamento de consultas por tick e o intervalo entre consultas que ele impõe
+    private int queryBudget;
+    private int queryInterval = 1;
+    private long tick;
+    
+    // Listas temporárias por thread
+    private final ThreadLocal<QueryScratch> scratch = new ThreadLocal<QueryScratch>() {
+        @Override
+        protected QueryScratch initialValue() {
+            return new QueryScratch();
+        }
+    };
+    
+    /**
+     * Memória temporária de uma thread para as consultas
+     */
+    private static class QueryScratch {
+        final IntArray candidates = new IntArray();
+        float[] bestDistances = new float[8];
+        int[] bestSlots = new int[8];
+    }
+    
+    public NeighbourIndex(int queryBudget) {
+        this.queryBudget = queryBudget;
+    }
+    
+    /**
+     * Reconstrói o índice com as criaturas vivas e renova o orçamento de consultas
+     * @param store Armazenamento das criaturas
+     */
+    public void rebuild(CreatureStore store) {
+        this.store = store;
+        int count = store.size();
+        snapshotCount = count;
+        
+        if (snapshotX.length < count) {
+            int capacity = Math.max(count, snapshotX.length * 2);
+            snapshotX = new float[capacity];
+            snapshotY = new float[capacity];
+            snapshotSpecies = new int[capacity];
+        }
+        
+        System.arraycopy(store.x, 0, snapshotX, 0, count);
+        System.arraycopy(store.y, 0, snapshotY, 0, count);
+        
+        grid.begin(CELL_SIZE);
+        for (int slot = 0; slot < count; slot++) {
+            Creature creature = store.getOwner(slot);
+            
+            if (creature.isAlive()) {
+                snapshotSpecies[slot] = creature.getSpecies();
+                grid.insert(slot, snapshotX[slot], snapshotY[slot]);
+            } else {
+                snapshotSpecies[slot] = -1;
+            }
+        }
+        grid.build();
+        
+        tick++;
+        // Contar os slots, e não só as vivas: cada resto de (tick + slot) cobre no máximo o orçamento
+        queryInterval = queryBudget > 0 ? Math.max(1, (count + queryBudget - 1) / queryBudget) : 1;
+    }
+    
+    @Override
+    public boolean isQueryDue(int slot) {
+        // Criaturas criadas depois do início do tick não entram na conta do orçamento
+        if (queryBudget <= 0 || slot >= snapshotCount) return false;
+        return queryInterval <= 1 || (tick + slot) % queryInterval == 0;
+    }
+    
+    @Override
+    public boolean canPerceive(Creature origin, Creature target, int speciesMask, float range) {
+        int slot = target.getSlot();
+        if (slot < 0 || slot >= snapshotCount) return false;
+        
+        int species = snapshotSpecies[slot];
+        if (species < 0 || (speciesMask & (1 << species)) == 0) return false;
+        
+        float dx = snapshotX[slot] - origin.getX();
+        float dy = snapshotY[slot] - origin.getY();
+        return dx * dx + dy * dy <= range * range;
+    }
+    
+    @Override
+    public float getX(int slot) {
+        return snapshotX[slot];
+    }
+    
+    @Override
+    public float getY(int slot) {
+        return snapshotY[slot];
+    }
+    
+    @Override
+    public Creature findNearest(Creature origin, int speciesMask, float range) {
+        IntArray found = collect(origin, speciesMask, range);
+        
+        float originX = origin.getX();
+        float originY = origin.getY();
+        float bestDistance = range * range;
+        int bestSlot = -1;
+        
+        for (int i = 0; i < found.size; i++) {
+            int slot = found.get(i);
+            float dx = snapshotX[slot] - originX;
+            float dy = snapshotY[slot] - originY;
+            float distance = dx * dx + dy * dy;
+            
+            if (distance <= bestDistance) {
+                bestDistance = distance;
+                bestSlot = slot;
+            }
+        }
+        
+        return bestSlot >= 0 ? store.getOwner(bestSlot) : null;
+    }
+    
+    @Override
+    public int findNearest(Creature origin, int speciesMask, float range, int k, Array<Creature> out) {
+        out.clear();
+        if (k <= 0) return 0;
+        
+        IntArray found = collect(origin, speciesMask, range);
+        float originX = origin.getX();
+        float originY = origin.getY();
+        float maxDistance = range * range;
+        
+        // Inserção ordenada nos k melhores (k é pequeno)
+        QueryScratch local = scratch.get();
+        if (local.bestSlots.length < k) {
+            local.bestDistances = new float[k];
+            local.bestSlots = new int[k];
+        }
+        float[] best = local.bestDistances;
+        int[] bestSlots = local.bestSlots;
+        int bestCount = 0;
+        
+        for (int i = 0; i < found.size; i++) {
+            int slot = found.get(i);
+            float dx = snapshotX[slot] - originX;
+            float dy = snapshotY[slot] - originY;
+            float distance = dx * dx + dy * dy;
+            
+            if (distance > maxDistance) continue;
+            if (bestCount == k && distance >= best[k - 1]) continue;
+            if (contains(bestSlots, bestCount, slot)) continue;
+            
+            int position = bestCount < k ? bestCount++ : k - 1;
+            while (position > 0 && best[position - 1] > distance) {
+                best[position] = best[position - 1];
+                bestSlots[position] = bestSlots[position - 1];
+                position--;
+            }
+            best[position] = distance;
+            bestSlots[position] = slot;
+        }
+        
+        for (int i = 0; i < bestCount; i++) {
+            out.add(store.getOwner(bestSlots[i]));
+        }
+        return bestCount;
+    }
+    
+    @Override
+    public int findInRange(Creature origin, int speciesMask, float range, Array<Creature> out) {
+        out.clear();
+        
+        IntArray found = collect(origin, speciesMask, range);
+        float originX = origin.getX();
+        float originY = origin.getY();
+        float maxDistance = range * range;
+        
+        // Ordenar os slots para descartar repetições (colisões de hash na grade)
+        Arrays.sort(found.items, 0, found.size);
+        int previous = -1;
+        
+        for (int i = 0; i < found.size; i++) {
+            int slot = found.get(i);
+            if (slot == previous) continue;
+            previous = slot;
+            
+            float dx = snapshotX[slot] - originX;
+            float dy = snapshotY[slot] - originY;
+            if (dx * dx + dy * dy <= maxDistance) {
+                out.add(store.getOwner(slot));
+            }
+        }
+        return out.size;
+    }
+    
+    /**
+     * Coleta os slots candidatos das espécies pedidas, sem a própria criatura.
+     * Pode conter repetições e slots fora do alcance.
+     */
+    private IntArray collect(Creature origin, int speciesMask, float range) {
+        IntArray found = scratch.get().candidates;
+        found.clear();
+        
+        if (store == null) return found;
+        
+        grid.queryConcurrent(origin.getX(), origin.getY(), range, found);
+        
+        // Filtrar espécie e a própria criatura no lugar
+        int originSlot = origin.getSlot();
+        int kept = 0;
+        for (int i = 0; i < found.size; i++) {
+            int slot = found.get(i);
+            int species = snapshotSpecies[slot];
+            
+            if (slot != originSlot && species >= 0 && (speciesMask & (1 << species)) != 0) {
+                found.items[kept++] = slot;
+            }
+        }
+        found.size = kept;
+        return found;
+    }
+    
+    private static boolean contains(int[] slots, int count, int slot) {
+        for (int i = 0; i < count; i++) {
+            if (slots[i] == slot) return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Define quantas consultas podem ser feitas por tick (o limite é aplicado
+     * espaçando as consultas de cada criatura)
+     * @param queryBudget Número máximo de consultas
+     */
+    public void setQueryBudget(int queryBudget) {
+        this.queryBudget = queryBudget;
+    }
+    
+    public int getQueryBudget() {
+        return queryBudget;
+    }
+}
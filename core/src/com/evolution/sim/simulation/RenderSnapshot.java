@@ -0,0 +1,118 @@
+package com.evolution.sim.simulation;
+
+import com.evolution.sim.entities.Creature;
+import com.evolution.sim.entities.CreatureStore;
+import com.evolution.sim.entities.CreatureType;
+
+/**
+ * Cópia do estado visível da simulação em um instante, para a renderização.
+ * É preenchida pela thread da simulação e, depois de publicada pelo
+ * SnapshotBuffer, apenas lida pela thread de renderização.
+ */
+public class RenderSnapshot {
+    // Criaturas vivas no instante da cópia
+    private float[] x = new float[0];
+    private float[] y = new float[0];
+    private float[] size = new float[0];
+    private float[] rotation = new float[0];
+    private float[] color = new float[0];
+    private byte[] species = new byte[0];
+    private int count;
+    
+    // Contadores de população
+    private final int[] alive = new int[CreatureType.values().length];
+    
+    // Tempo simulado e velocidade alcançada
+    private long tick;
+    private float effectiveSpeed;
+    
+    /**
+     * Copia o estado atual do mundo
+     * @param world Mundo simulado
+     * @param tick Número de passos já executados
+     * @param effectiveSpeed Velocidade realmente alcançada
+     */
+    void capture(SimulationWorld world, long tick, float effectiveSpeed) {
+        CreatureStore store = world.getStore();
+        int slots = store.size();
+        ensureCapacity(slots);
+        
+        int n = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            Creature creature = store.getOwner(slot);
+            
+            if (!creature.isAlive()) continue;
+            
+            x[n] = store.x[slot];
+            y[n] = store.y[slot];
+            size[n] = store.size[slot];
+            rotation[n] = creature.getRotation();
+            color[n] = creature.getPackedColor();
+            species[n] = (byte) creature.getSpecies();
+            n++;
+        }
+        count = n;
+        
+        for (CreatureType type : CreatureType.values()) {
+            alive[type.ordinal()] = world.getPopulation().getAlive(type);
+        }
+        this.tick = tick;
+        this.effectiveSpeed = effectiveSpeed;
+    }
+    
+    private void ensureCapacity(int capacity) {
+        if (x.length >= capacity) return;
+        
+        capacity = Math.max(capacity, x.length * 2);
+        x = new float[capacity];
+        y = new float[capacity];
+        size = new float[capacity];
+        rotation = new float[capacity];
+        color = new float[capacity];
+        species = new byte[capacity];
+    }
+    
+    // Getters
+    public int getCount() {
+        return count;
+    }
+    
+    public float getX(int index) {
+        return x[index];
+    }
+    
+    public float getY(int index) {
+        return y[index];
+    }
+    
+    public float getSize(int index) {
+        return size[index];
+    }
+    
+    public float getRotation(int index) {
+        return rotation[index];
+    }
+    
+    /**
+     * Cor empacotada (Color.toFloatBits()) da criatura
+     */
+    public float getColor(int index) {
+        return color[index];
+    }
+    
+    public int getSpecies(int index) {
+        return species[index];
+    }
+    
+    public int getAlive(CreatureType type) {
+        return alive[type.ordinal()];
+    }
+    
+    public long getTick() {
+        return tick;
+    }
+    
+    public float getEffectiveSpeed() {
+        return effectiveSpeed;
+    }
+}
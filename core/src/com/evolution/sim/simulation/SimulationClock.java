@@ -0,0 +1,117 @@
+package com.evolution.sim.simulation;
+
+/**
+ * Relógio de passo fixo da simulação. Cada quadro soma o tempo real
+ * multiplicado pela velocidade em um acumulador e executa quantos passos
+ * fixos couberem nele, sem ultrapassar um orçamento de tempo real por quadro.
+ * A tela desenha uma única vez depois de cada lote de passos.
+ *
+ * Velocidades altas viram mais passos do mesmo tamanho, e não um passo maior,
+ * então as criaturas não atravessam umas às outras nem o terreno.
+ */
+public class SimulationClock {
+    public static final float FIXED_STEP = 1f / 60f;
+    public static final float MIN_SPEED = 0.1f;
+    public static final float MAX_SPEED = 1000f;
+    
+    // Maior intervalo de quadro aceito (ex.: após arrastar a janela)
+    private static final float MAX_FRAME_DELTA = 0.25f;
+    
+    private final SimulationWorld world;
+    
+    private float speed = 1f;
+    private float accumulator;
+    
+    // Tempo real máximo gasto em passos por quadro
+    private long stepBudgetNanos = 12_000_000L;
+    
+    // Medições do último quadro
+    private int lastSubsteps;
+    private boolean lastBudgetExceeded;
+    private float effectiveSpeed = 1f;
+    
+    public SimulationClock(SimulationWorld world) {
+        this.world = world;
+    }
+    
+    /**
+     * Avança a simulação pelo tempo de um quadro
+     * @param frameDelta Tempo real desde o último quadro em segundos
+     * @return Número de passos fixos executados
+     */
+    public int advance(float frameDelta) {
+        frameDelta = Math.min(frameDelta, MAX_FRAME_DELTA);
+        accumulator += frameDelta * speed;
+        
+        long start = System.nanoTime();
+        int substeps = 0;
+        boolean budgetExceeded = false;
+        
+        while (accumulator >= FIXED_STEP) {
+            if (substeps > 0 && System.nanoTime() - start >= stepBudgetNanos) {
+                budgetExceeded = true;
+                break;
+            }
+            
+            world.step(FIXED_STEP);
+            accumulator -= FIXED_STEP;
+            substeps++;
+        }
+        
+        // Sem tempo para o atraso: descartá-lo em vez de acumular indefinidamente
+        if (budgetExceeded) {
+            accumulator = Math.min(accumulator, FIXED_STEP);
+        }
+        
+        lastSubsteps = substeps;
+        lastBudgetExceeded = budgetExceeded;
+        
+        // Velocidade realmente alcançada, suavizada por tempo (~0,5 s) e não por quadro
+        if (frameDelta > 0) {
+            float measured = substeps * FIXED_STEP / frameDelta;
+            effectiveSpeed += (measured - effectiveSpeed) * Math.min(1f, frameDelta * 2f);
+        }
+        
+        return substeps;
+    }
+    
+    /**
+     * Descarta o tempo acumulado (ex.: ao pausar)
+     */
+    public void resetAccumulator() {
+        accumulator = 0f;
+    }
+    
+    /**
+     * Define a velocidade da simulação, limitada a [MIN_SPEED, MAX_SPEED]
+     * @param speed Segundos simulados por segundo real
+     */
+    public void setSpeed(float speed) {
+        this.speed = Math.max(MIN_SPEED, Math.min(speed, MAX_SPEED));
+    }
+    
+    /**
+     * Define o tempo real máximo gasto em passos por quadro
+     * @param millis Orçamento em milissegundos
+     */
+    public void setStepBudgetMillis(float millis) {
+        this.stepBudgetNanos = (long) (millis * 1_000_000L);
+    }
+    
+    // Getters
+    public float getSpeed() {
+        return speed;
+    }
+    
+    public float getEffectiveSpeed() {
+        return effectiveSpeed;
+    }
+    
+    public int getLastSubsteps() {
+        return lastSubsteps;
+    }
+    
+    public boolean isBudgetExceeded() {
+        return lastBudgetExceeded;
+    }
+}
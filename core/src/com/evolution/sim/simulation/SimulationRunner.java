@@ -0,0 +1,176 @@
+package com.evolution.sim.simulation;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Executa a simulação em uma thread própria, separada da renderização.
+ * A thread da interface não toca no SimulationWorld: envia comandos pela
+ * fila, ajusta velocidade, pausa e área vista por campos voláteis, e lê o
+ * estado através das cópias publicadas no SnapshotBuffer.
+ */
+public class SimulationRunner implements Runnable {
+    /**
+     * Alteração do mundo pedida pela interface e executada na thread da simulação
+     */
+    public interface Command {
+        void execute(SimulationWorld world);
+    }
+    
+    // Pausa entre iterações quando não há passo a executar
+    private static final long IDLE_SLEEP_MILLIS = 1;
+    
+    private final SimulationWorld world;
+    private final SimulationClock clock;
+    private final SnapshotBuffer snapshots = new SnapshotBuffer();
+    private final ConcurrentLinkedQueue<Command> commands = new ConcurrentLinkedQueue<>();
+    
+    // Controles escritos pela interface
+    private volatile boolean running;
+    private volatile boolean paused;
+    private volatile float speed = 1f;
+    private volatile boolean viewSet;
+    private volatile float viewX, viewY, viewWidth, viewHeight;
+    
+    private Thread thread;
+    private long tick;
+    
+    public SimulationRunner(SimulationWorld world) {
+        this.world = world;
+        this.clock = new SimulationClock(world);
+    }
+    
+    /**
+     * Inicia a thread da simulação
+     */
+    public synchronized void start() {
+        if (thread != null) return;
+        
+        running = true;
+        thread = new Thread(this, "simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    /**
+     * Para a thread da simulação e espera o fim do passo atual
+     */
+    public synchronized void stop() {
+        if (thread == null) return;
+        
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+    
+    @Override
+    public void run() {
+        long last = System.nanoTime();
+        publishSnapshot();
+        
+        while (running) {
+            long now = System.nanoTime();
+            float elapsed = (now - last) / 1e9f;
+            last = now;
+            
+            // Aplicar os pedidos da interface entre dois passos
+            boolean changed = executeCommands();
+            applyControls();
+            
+            int substeps = 0;
+            if (paused) {
+                clock.resetAccumulator();
+            } else {
+                substeps = clock.advance(elapsed);
+                tick += substeps;
+            }
+            
+            if (substeps > 0 || changed) {
+                publishSnapshot();
+            } else {
+                try {
+                    Thread.sleep(IDLE_SLEEP_MILLIS);
+                } catch (InterruptedException e) {
+                    // stop() interrompe o sono; o laço verifica running
+                }
+            }
+        }
+    }
+    
+    private boolean executeCommands() {
+        boolean executed = false;
+        Command command;
+        while ((command = commands.poll()) != null) {
+            command.execute(world);
+            executed = true;
+        }
+        return executed;
+    }
+    
+    private void applyControls() {
+        clock.setSpeed(speed);
+        
+        if (viewSet) {
+            world.getAiScheduler().setView(viewX, viewY, viewWidth, viewHeight);
+        } else {
+            world.getAiScheduler().clearView();
+        }
+    }
+    
+    private void publishSnapshot() {
+        snapshots.getWriteBuffer().capture(world, tick, paused ? 0f : clock.getEffectiveSpeed());
+        snapshots.publish();
+    }
+    
+    /**
+     * Envia um comando para ser executado na thread da simulação
+     * @param command Alteração do mundo
+     */
+    public void submit(Command command) {
+        commands.add(command);
+    }
+    
+    /**
+     * Obtém a cópia mais recente do estado para desenhar (thread de renderização)
+     * @return Cópia válida até a próxima chamada
+     */
+    public RenderSnapshot acquireSnapshot() {
+        return snapshots.acquire();
+    }
+    
+    /**
+     * Define a área vista pela câmera, usada pelo AiScheduler
+     */
+    public void setView(float x, float y, float width, float height) {
+        this.viewX = x;
+        this.viewY = y;
+        this.viewWidth = width;
+        this.viewHeight = height;
+        this.viewSet = true;
+    }
+    
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+    }
+    
+    /**
+     * Define a velocidade da simulação (limitada pelo SimulationClock)
+     * @param speed Segundos simulados por segundo real
+     */
+    public void setSpeed(float speed) {
+        this.speed = Math.max(SimulationClock.MIN_SPEED, Math.min(speed, SimulationClock.MAX_SPEED));
+    }
+    
+    // Getters
+    public boolean isPaused() {
+        return paused;
+    }
+    
+    public float getSpeed() {
+        return speed;
+    }
+}
@@ -0,0 +1,526 @@
+package com.evolution.sim.simulation;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongArray;
+import com.evolution.sim.entities.Creature;
+import com.evolution.sim.entities.CreatureStore;
+import com.evolution.sim.entities.CreatureType;
+import com.evolution.sim.entities.MateIndex;
+import com.evolution.sim.entities.PopulationCounter;
+import com.evolution.sim.entities.Predator;
+import com.evolution.sim.entities.Prey;
+import com.evolution.sim.genetics.BreedingBatch;
+import com.evolution.sim.genetics.Genome;
+import com.evolution.sim.genetics.LineageStore;
+import com.evolution.sim.genetics.TraitStatistics;
+import com.evolution.sim.world.SpatialHashGrid;
+import com.evolution.sim.world.TerrainType;
+import com.evolution.sim.world.WorldMap;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Motor da simulação: mantém as criaturas e avança o mundo sem depender
+ * de renderização, entrada ou contexto gráfico. As telas apenas observam.
+ */
+public class SimulationWorld {
+    private final WorldMap worldMap;
+    
+    // Criaturas na simulação
+    private final Array<Creature> creatures;
+    
+    // Atributos quentes das criaturas em arrays contíguos
+    private final CreatureStore store = new CreatureStore();
+    
+    // Grade espacial para detecção de colisões
+    private final SpatialHashGrid collisionGrid = new SpatialHashGrid();
+    private final IntArray neighbours = new IntArray();
+    
+    // Nascimentos do tick atual (reutilizado entre ticks)
+    private final Array<Creature> births = new Array<>(false, 16);
+    
+    // Genomas dos filhotes do tick, gerados em lote, e o pai de cada um
+    private final BreedingBatch breeding = new BreedingBatch();
+    private final Array<Creature> breedingParents = new Array<>(false, 16);
+    private final LongArray breedingMates = new LongArray();
+    
+    // Árvore de descendência e tick atual
+    private final LineageStore lineage = new LineageStore();
+    private long tick;
+    
+    // Estatísticas dos traços da população viva, por espécie
+    private final TraitStatistics[] traitStatistics = new TraitStatistics[CreatureType.values().length];
+    
+    // Agrupamento das criaturas em espécies emergentes
+    private final SpeciesTracker speciesTracker = new SpeciesTracker();
+    
+    // Consultas de vizinhança para a percepção das criaturas
+    private final NeighbourIndex neighbourIndex = new NeighbourIndex(DEFAULT_PERCEPTION_BUDGET);
+    
+    // Frequência do comportamento por distância da câmera
+    private final AiScheduler aiScheduler = new AiScheduler();
+    
+    // Interações no contato entre espécies
+    private final InteractionTable interactions = new InteractionTable();
+    
+    // Índice de parceiros prontos para reproduzir
+    private final MateIndex mateIndex = new MateIndex(MATE_DISTANCE);
+    
+    // Atualização paralela das criaturas
+    private boolean parallelUpdate = false;
+    private ForkJoinPool updatePool = ForkJoinPool.commonPool();
+    
+    // Constantes
+    public static final int TILE_SIZE = 32;
+    private static final int INITIAL_PREY = 20;
+    private static final int INITIAL_PREDATORS = 8;
+    private static final int INITIAL_CANNIBALS = 3;
+    private static final float MATE_DISTANCE = 100f; // Proximidade máxima para reprodução
+    private static final int PARALLEL_THRESHOLD = 1024; // População mínima para dividir a atualização
+    private static final int UPDATE_CHUNK_SIZE = 256; // Criaturas por tarefa paralela
+    private static final int DEFAULT_PERCEPTION_BUDGET = 50000; // Consultas de vizinhança por tick
+    
+    public SimulationWorld(WorldMap worldMap) {
+        this.worldMap = worldMap;
+        // Lista não ordenada: remoções trocam com o último em vez de deslocar a cauda
+        this.creatures = new Array<>(false, 64);
+        this.store.setPerception(neighbourIndex);
+        
+        for (int i = 0; i < traitStatistics.length; i++) {
+            traitStatistics[i] = new TraitStatistics();
+        }
+        
+        registerDefaultInteractions();
+    }
+    
+    /**
+     * Registra as interações padrão entre as espécies
+     */
+    private void registerDefaultInteractions() {
+        InteractionTable.Handler predation = (predator, prey) -> processPredation((Predator) predator, prey);
+        
+        // Predadores (e canibais) comem presas
+        interactions.register(CreatureType.PREDATOR, CreatureType.PREY, predation);
+        interactions.register(CreatureType.CANNIBAL, CreatureType.PREY, predation);
+        
+        // Canibais comem predadores e outros canibais
+        interactions.register(CreatureType.CANNIBAL, CreatureType.PREDATOR, predation);
+        interactions.register(CreatureType.CANNIBAL, CreatureType.CANNIBAL, predation);
+    }
+    
+    /**
+     * Povoa o mundo com as criaturas iniciais
+     */
+    public void populate() {
+        // Limpar lista de criaturas, devolvendo as instâncias ao pool
+        for (int i = 0; i < creatures.size; i++) {
+            Creature creature = creatures.get(i);
+            recordDeath(creature);
+            store.free(creature);
+        }
+        creatures.clear();
+        
+        // Adicionar presas iniciais
+        for (int i = 0; i < INITIAL_PREY; i++) {
+            addRandomCreature(CreatureType.PREY);
+        }
+        
+        // Adicionar predadores iniciais
+        for (int i = 0; i < INITIAL_PREDATORS; i++) {
+            addRandomCreature(CreatureType.PREDATOR);
+        }
+        
+        // Adicionar canibais iniciais
+        for (int i = 0; i < INITIAL_CANNIBALS; i++) {
+            addRandomCreature(CreatureType.CANNIBAL);
+        }
+    }
+    
+    /**
+     * Adiciona uma criatura em uma posição aleatória fora da água
+     * @param type Espécie da criatura
+     */
+    public void addRandomCreature(CreatureType type) {
+        // Encontrar posição válida (não na água)
+        int tileX, tileY;
+        TerrainType terrain;
+        
+        do {
+            tileX = MathUtils.random(0, worldMap.getWidth() - 1);
+            tileY = MathUtils.random(0, worldMap.getHeight() - 1);
+            terrain = worldMap.getTerrainAt(tileX, tileY);
+        } while (terrain == TerrainType.WATER);
+        
+        // Converter para posição em pixels
+        float posX = tileX * TILE_SIZE + TILE_SIZE/2f;
+        float posY = tileY * TILE_SIZE + TILE_SIZE/2f;
+        
+        // Criar criatura baseada no tipo (reaproveitando instâncias recicladas)
+        Creature creature = store.obtain(type, posX, posY, worldMap, null);
+        
+        // Adicionar à lista e registrar como fundador de uma linhagem
+        creatures.add(creature);
+        recordBirth(creature, LineageStore.NO_PARENT, LineageStore.NO_PARENT);
+    }
+    
+    /**
+     * Avança a simulação
+     * @param delta Tempo simulado em segundos
+     */
+    public void step(float delta) {
+        tick++;
+        
+        // Indexar as posições do início do tick para a percepção
+        neighbourIndex.rebuild(store);
+        
+        // Recalcular o campo de comida antes que as threads o consultem
+        worldMap.getFoodField().ensureUpdated();
+        
+        // Decidir o nível de detalhe do comportamento neste tick
+        aiScheduler.beginTick(store);
+        
+        // Atualizar cada criatura
+        if (parallelUpdate && creatures.size >= PARALLEL_THRESHOLD) {
+            updatePool.invoke(new UpdateTask(0, creatures.size, delta));
+        } else {
+            updateCreatures(0, creatures.size, delta);
+        }
+        
+        // Aplicar em série os efeitos que envolvem outras criaturas
+        for (int i = 0; i < creatures.size; i++) {
+            creatures.get(i).applyDeferredEffects();
+        }
+        
+        // Verificar interações entre criaturas
+        processCreatureInteractions();
+        
+        // Remover criaturas mortas e adicionar novos nascimentos
+        processReproduction();
+        
+        // Manter população mínima
+        maintainMinimumPopulation();
+        
+        // Aplicar ou iniciar o reagrupamento das espécies
+        speciesTracker.update(tick, creatures);
+    }
+    
+    private void updateCreatures(int from, int to, float delta) {
+        for (int i = from; i < to; i++) {
+            Creature creature = creatures.get(i);
+            
+            if (creature.isAlive()) {
+                creature.update(delta, aiScheduler.shouldThink(creature.getSlot(), creature.getX(), creature.getY()));
+            }
+        }
+    }
+    
+    /**
+     * Tarefa fork-join que divide a atualização das criaturas em blocos.
+     * Cada criatura só altera o próprio estado e lê o WorldMap compartilhado;
+     * efeitos sobre outras criaturas ficam para applyDeferredEffects().
+     */
+    private class UpdateTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final float delta;
+        
+        UpdateTask(int from, int to, float delta) {
+            this.from = from;
+            this.to = to;
+            this.delta = delta;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= UPDATE_CHUNK_SIZE) {
+                updateCreatures(from, to, delta);
+                return;
+            }
+            
+            int middle = (from + to) >>> 1;
+            invokeAll(new UpdateTask(from, middle, delta), new UpdateTask(middle, to, delta));
+        }
+    }
+    
+    private void processCreatureInteractions() {
+        // Percorrer os slots do armazenamento SoA (índices de slot, não da lista)
+        int slotCount = store.size();
+        float[] xs = store.x;
+        float[] ys = store.y;
+        float[] sizes = store.size;
+        
+        // Reconstruir a grade espacial com as criaturas vivas
+        float maxSize = 0f;
+        for (int a = 0; a < slotCount; a++) {
+            maxSize = Math.max(maxSize, sizes[a]);
+        }
+        
+        // Células do tamanho de um tile, ou maiores se a maior criatura não couber
+        collisionGrid.begin(Math.max(TILE_SIZE, maxSize * 2f));
+        for (int a = 0; a < slotCount; a++) {
+            if (store.getOwner(a).isAlive()) {
+                collisionGrid.insert(a, xs[a], ys[a]);
+            }
+        }
+        collisionGrid.build();
+        
+        for (int a = 0; a < slotCount; a++) {
+            Creature creature1 = store.getOwner(a);
+            
+            if (!creature1.isAlive()) continue;
+            
+            // Comparar apenas com criaturas das células vizinhas
+            neighbours.clear();
+            collisionGrid.query(xs[a], ys[a], sizes[a] + maxSize, neighbours);
+            
+            for (int k = 0; k < neighbours.size; k++) {
+                int b = neighbours.get(k);
+                
+                // Cada par é processado uma única vez
+                if (b <= a) continue;
+                
+                Creature creature2 = store.getOwner(b);
+                
+                if (!creature2.isAlive()) continue;
+                
+                // Pares sem interação registrada (ex.: presa com presa) não precisam do teste de distância
+                if (!interactions.hasInteraction(creature1.getSpecies(), creature2.getSpecies())) continue;
+                
+                // Verificar colisão
+                float dx = xs[a] - xs[b];
+                float dy = ys[a] - ys[b];
+                float minDistance = sizes[a] + sizes[b];
+                if (dx * dx + dy * dy < minDistance * minDistance) {
+                    // Processar interação baseada nas espécies
+                    interactions.interact(creature1, creature2);
+                }
+            }
+        }
+    }
+    
+    private void processPredation(Predator predator, Creature prey) {
+        // Chance de sucesso baseada em força vs. velocidade
+        float preySpeed = prey instanceof Prey ? ((Prey)prey).getSpeed() : 0;
+        float predatorStrength = predator.getStrength();
+        
+        // Fórmula simples para chance de sucesso
+        float successChance = 0.6f + (predatorStrength * 0.4f) - (preySpeed * 0.3f);
+        
+        if (MathUtils.random() < successChance) {
+            // Predação bem-sucedida
+            float energyGain = prey.getSize() * 15f; // Energia baseada no tamanho
+            predator.addEnergy(energyGain);
+            prey.die();
+        }
+    }
+    
+    private void processReproduction() {
+        // Coletar novas criaturas para adicionar após o loop
+        births.clear();
+        breeding.clear();
+        breedingParents.clear();
+        breedingMates.clear();
+        
+        // Indexar os candidatos a parceiro antes de processar a reprodução
+        mateIndex.rebuild(creatures);
+        
+        // Remover criaturas mortas e processar reprodução
+        for (int i = creatures.size - 1; i >= 0; i--) {
+            Creature creature = creatures.get(i);
+            
+            // Remover mortos (troca com o último, que já foi visitado) e reciclar a instância
+            if (!creature.isAlive()) {
+                recordDeath(creature);
+                creatures.removeIndex(i);
+                store.free(creature);
+                continue;
+            }
+            
+            // Chance de reprodução para criaturas com energia suficiente
+            if (creature.canReproduce() && MathUtils.random() < 0.01f) {
+                // Encontrar parceiro (se for da mesma espécie)
+                Creature partner = findReproductionPartner(creature);
+                
+                // Pagar o custo agora e deixar o genoma do descendente para o lote
+                if (creature.beginReproduction()) {
+                    if (creature.acceptMate(partner)) {
+                        breeding.addPair(creature.getGenome(), partner.getGenome());
+                        breedingMates.add(partner.getId());
+                    } else {
+                        breeding.addClone(creature.getGenome());
+                        breedingMates.add(LineageStore.NO_PARENT);
+                    }
+                    breedingParents.add(creature);
+                }
+            }
+        }
+        
+        // Gerar todos os genomas de uma vez e criar os descendentes
+        if (breeding.size() > 0) {
+            breeding.breed();
+            for (int i = 0; i < breedingParents.size; i++) {
+                Creature parent = breedingParents.get(i);
+                Genome childGenome = breeding.getChild(i);
+                Creature child = parent.spawnOffspring(childGenome);
+                
+                recordBirth(child, parent.getId(), breedingMates.get(i));
+                births.add(child);
+            }
+        }
+        
+        // Adicionar novos nascimentos
+        creatures.addAll(births);
+    }
+    
+    private Creature findReproductionPartner(Creature creature) {
+        // Consultar apenas os candidatos da mesma espécie nas células próximas
+        return mateIndex.findPartner(creature);
+    }
+    
+    private void maintainMinimumPopulation() {
+        // Manter população mínima de cada tipo
+        PopulationCounter population = store.getPopulation();
+        
+        if (population.getAlive(CreatureType.PREY) < 5) {
+            for (int i = 0; i < 3; i++) {
+                addRandomCreature(CreatureType.PREY);
+            }
+        }
+        
+        if (population.getAlive(CreatureType.PREDATOR) < 2) {
+            addRandomCreature(CreatureType.PREDATOR);
+        }
+        
+        if (population.getAlive(CreatureType.CANNIBAL) < 1) {
+            addRandomCreature(CreatureType.CANNIBAL);
+        }
+    }
+    
+    /**
+     * Ativa ou desativa a atualização paralela das criaturas
+     * @param parallelUpdate true para dividir a atualização entre os núcleos
+     */
+    public void setParallelUpdate(boolean parallelUpdate) {
+        this.parallelUpdate = parallelUpdate;
+    }
+    
+    /**
+     * Define quantas consultas de vizinhança as criaturas podem fazer por tick.
+     * Com mais criaturas vivas que isso, as consultas de cada criatura são
+     * espaçadas e, entre elas, a criatura reutiliza a sua última percepção.
+     * @param budget Número máximo de consultas por tick
+     */
+    public void setPerceptionBudget(int budget) {
+        neighbourIndex.setQueryBudget(budget);
+    }
+    
+    /**
+     * Define o pool usado na atualização paralela (padrão: pool comum da JVM)
+     * @param updatePool Pool fork-join
+     */
+    public void setUpdatePool(ForkJoinPool updatePool) {
+        this.updatePool = updatePool;
+    }
+    
+    // Getters
+    
+    public boolean isParallelUpdate() {
+        return parallelUpdate;
+    }
+    
+    public WorldMap getWorldMap() {
+        return worldMap;
+    }
+    
+    public AiScheduler getAiScheduler() {
+        return aiScheduler;
+    }
+    
+    /**
+     * Registra o nascimento de uma criatura na linhagem, nas estatísticas de traços
+     * e no agrupamento de espécies
+     * @param creature Criatura que entrou na simulação
+     * @param parentId Id do pai (ou LineageStore.NO_PARENT)
+     * @param mateId Id do parceiro (ou LineageStore.NO_PARENT)
+     */
+    private void recordBirth(Creature creature, long parentId, long mateId) {
+        lineage.recordBirth(creature.getId(), parentId, mateId, tick, creature.getGenome());
+        traitStatistics[creature.getType().ordinal()].add(creature.getGenome());
+        creature.setCluster(speciesTracker.assign(creature.getGenome()));
+    }
+    
+    /**
+     * Registra a morte de uma criatura antes de ela ser liberada
+     * @param creature Criatura que sai da simulação
+     */
+    private void recordDeath(Creature creature) {
+        lineage.recordDeath(creature.getId(), tick);
+        traitStatistics[creature.getType().ordinal()].remove(creature.getGenome());
+        speciesTracker.release(creature.getCluster());
+    }
+    
+    /**
+     * Obtém as estatísticas dos traços das criaturas vivas de uma espécie
+     * @param type Espécie
+     * @return Estatísticas mantidas pela simulação (não modifique)
+     */
+    public TraitStatistics getTraitStatistics(CreatureType type) {
+        return traitStatistics[type.ordinal()];
+    }
+    
+    /**
+     * Combina as estatísticas de todas as espécies
+     * @param out Estatísticas de destino (são limpas antes)
+     * @return O próprio destino
+     */
+    public TraitStatistics getTraitStatistics(TraitStatistics out) {
+        out.clear();
+        for (TraitStatistics statistics : traitStatistics) {
+            out.merge(statistics);
+        }
+        return out;
+    }
+    
+    public SpeciesTracker getSpeciesTracker() {
+        return speciesTracker;
+    }
+    
+    public LineageStore getLineage() {
+        return lineage;
+    }
+    
+    public long getTick() {
+        return tick;
+    }
+    
+    public InteractionTable getInteractions() {
+        return interactions;
+    }
+    
+    public CreatureStore getStore() {
+        return store;
+    }
+    
+    public Array<Creature> getCreatures() {
+        return creatures;
+    }
+    
+    public PopulationCounter getPopulation() {
+        return store.getPopulation();
+    }
+    
+    public int getPreyCount() {
+        return store.getPopulation().getAlive(CreatureType.PREY);
+    }
+    
+    public int getPredatorCount() {
+        return store.getPopulation().getAlive(CreatureType.PREDATOR);
+    }
+    
+    public int getCannibalCount() {
+        return store.getPopulation().getAlive(CreatureType.CANNIBAL);
+    }
+}
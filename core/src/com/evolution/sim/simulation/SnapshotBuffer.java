@@ -0,0 +1,51 @@
+package com.evolution.sim.simulation;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Buffer triplo de RenderSnapshot entre a thread da simulação (escritora)
+ * e a de renderização (leitora). A escritora preenche o seu buffer e o troca
+ * pelo buffer "pronto"; a leitora troca o seu pelo pronto quando há um novo.
+ * Nenhuma das duas espera pela outra, e nenhuma lê um buffer sendo escrito.
+ */
+public class SnapshotBuffer {
+    // Bit que indica que o buffer pronto ainda não foi lido
+    private static final int FRESH = 4;
+    
+    private final RenderSnapshot[] buffers = {new RenderSnapshot(), new RenderSnapshot(), new RenderSnapshot()};
+    
+    // Índice do buffer pronto (bits 0-1) e o bit FRESH
+    private final AtomicInteger ready = new AtomicInteger(1);
+    
+    // Usados somente pela escritora e pela leitora, respectivamente
+    private int writeIndex = 0;
+    private int readIndex = 2;
+    
+    /**
+     * Buffer que a escritora pode preencher
+     */
+    RenderSnapshot getWriteBuffer() {
+        return buffers[writeIndex];
+    }
+    
+    /**
+     * Publica o buffer preenchido e passa a escrever no antigo pronto
+     */
+    void publish() {
+        int previous = ready.getAndSet(writeIndex | FRESH);
+        writeIndex = previous & 3;
+    }
+    
+    /**
+     * Obtém a cópia publicada mais recente. O objeto retornado continua válido
+     * até a próxima chamada a este método.
+     * @return Cópia mais recente
+     */
+    public RenderSnapshot acquire() {
+        if ((ready.get() & FRESH) != 0) {
+            int previous = ready.getAndSet(readIndex);
+            readIndex = previous & 3;
+        }
+        return buffers[readIndex];
+    }
+}
@@ -0,0 +1,517 @@
+package com.evolution.sim.simulation;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntIntMap;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.LongMap;
+import com.evolution.sim.entities.Creature;
+import com.evolution.sim.genetics.Genome;
+import com.evolution.sim.genetics.TraitRegistry;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Agrupa as criaturas em espécies emergentes pela compatibilidade genética
+ * (Genome.calculateCompatibility), sem comparar todos os pares.
+ *
+ * Cada espécie tem um genoma representante. Um recém-nascido é comparado só com
+ * os representantes do seu bucket: os genomas são projetados em três eixos com
+ * pesos ±1 e quantizados em células do tamanho da diferença média tolerada.
+ * Como a projeção nunca varia mais do que a diferença média entre dois genomas,
+ * qualquer representante compatível está na mesma célula ou em uma vizinha,
+ * então o bucketing não perde candidatos. Genomas com conjuntos de traços
+ * diferentes ficam em buckets separados.
+ *
+ * Periodicamente os representantes são recalculados em segundo plano (o membro
+ * mais próximo do centróide de cada espécie) e as criaturas são reatribuídas.
+ * O resultado é aplicado na thread da simulação, em update().
+ *
+ * Exceto pelo reagrupamento, não é seguro para uso concorrente.
+ */
+public class SpeciesTracker {
+    public static final int NO_SPECIES = -1;
+    
+    // Compatibilidade mínima para pertencer à espécie de um representante
+    public static final float DEFAULT_THRESHOLD = 0.85f;
+    
+    // Ticks entre reagrupamentos
+    public static final int DEFAULT_RECLUSTER_INTERVAL = 600;
+    
+    // Espécies vivas por id
+    private final IntMap<Species> species = new IntMap<>();
+    private final SpeciesIndex index;
+    private final AtomicInteger nextId = new AtomicInteger();
+    
+    private float threshold = DEFAULT_THRESHOLD;
+    private int reclusterInterval = DEFAULT_RECLUSTER_INTERVAL;
+    private long lastRecluster;
+    
+    // Reagrupamento em andamento e as criaturas que ele considerou
+    private Executor executor = ForkJoinPool.commonPool();
+    private CompletableFuture<Result> pending;
+    private Creature[] pendingCreatures;
+    private long[] pendingIds;
+    
+    /**
+     * Espécie emergente e seu representante
+     */
+    public static final class Species {
+        final int id;
+        Genome representative;
+        int members;
+        
+        // Bucket onde o representante está indexado
+        long key;
+        
+        Species(int id, Genome representative) {
+            this.id = id;
+            this.representative = representative;
+        }
+        
+        // Getters
+        public int getId() {
+            return id;
+        }
+        
+        public Genome getRepresentative() {
+            return representative;
+        }
+        
+        public int getMembers() {
+            return members;
+        }
+    }
+    
+    /**
+     * Resultado de um reagrupamento: representantes e a espécie de cada genoma
+     */
+    private static final class Result {
+        final Array<Species> species;
+        final int[] assignments;
+        
+        Result(Array<Species> species, int[] assignments) {
+            this.species = species;
+            this.assignments = assignments;
+        }
+    }
+    
+    public SpeciesTracker() {
+        index = new SpeciesIndex(threshold);
+    }
+    
+    /**
+     * Atribui um genoma recém-nascido à espécie mais compatível,
+     * fundando uma nova espécie se nenhuma for compatível
+     * @param genome Genoma da criatura (pode ser null)
+     * @return Id da espécie, ou NO_SPECIES para genomas nulos
+     */
+    public int assign(Genome genome) {
+        if (genome == null) return NO_SPECIES;
+        
+        Species best = index.findBest(genome);
+        if (best == null) {
+            best = new Species(nextId.getAndIncrement(), genome);
+            species.put(best.id, best);
+            index.add(best);
+        }
+        best.members++;
+        return best.id;
+    }
+    
+    /**
+     * Retira um membro de uma espécie; espécies sem membros são extintas
+     * @param speciesId Id devolvido por assign()
+     */
+    public void release(int speciesId) {
+        Species s = species.get(speciesId);
+        if (s != null && --s.members <= 0) {
+            species.remove(speciesId);
+            index.remove(s);
+        }
+    }
+    
+    /**
+     * Aplica um reagrupamento concluído e inicia o próximo quando for a hora.
+     * Deve ser chamado ao fim do tick, com as criaturas já registradas.
+     * @param tick Tick atual
+     * @param creatures Criaturas da simulação
+     */
+    public void update(long tick, Array<Creature> creatures) {
+        if (pending != null) {
+            if (!pending.isDone()) return;
+            
+            applyResult(pending.join(), creatures);
+            pending = null;
+            pendingCreatures = null;
+            pendingIds = null;
+        }
+        
+        if (tick - lastRecluster >= reclusterInterval && creatures.size > 0) {
+            lastRecluster = tick;
+            startRecluster(creatures);
+        }
+    }
+    
+    /**
+     * Captura os genomas atuais e agenda o reagrupamento no executor
+     */
+    private void startRecluster(Array<Creature> creatures) {
+        int count = creatures.size;
+        Creature[] snapshot = new Creature[count];
+        long[] ids = new long[count];
+        Genome[] genomes = new Genome[count];
+        int[] assigned = new int[count];
+        
+        for (int i = 0; i < count; i++) {
+            Creature creature = creatures.get(i);
+            snapshot[i] = creature;
+            ids[i] = creature.getId();
+            genomes[i] = creature.getGenome();
+            assigned[i] = creature.getCluster();
+        }
+        
+        // Os genomas não mudam depois do nascimento, então podem ser lidos em outra thread
+        float threshold = this.threshold;
+        pendingCreatures = snapshot;
+        pendingIds = ids;
+        pending = CompletableFuture.supplyAsync(() -> recluster(genomes, assigned, threshold, nextId), executor);
+    }
+    
+    /**
+     * Recalcula os representantes e reatribui os genomas capturados
+     */
+    private static Result recluster(Genome[] genomes, int[] assigned, float threshold, AtomicInteger nextId) {
+        int traits = TraitRegistry.count();
+        
+        // Somar os traços dos membros de cada espécie
+        IntIntMap rows = new IntIntMap();
+        IntArray speciesIds = new IntArray();
+        for (int i = 0; i < genomes.length; i++) {
+            if (genomes[i] == null || assigned[i] == NO_SPECIES) continue;
+            if (!rows.containsKey(assigned[i])) {
+                rows.put(assigned[i], speciesIds.size);
+                speciesIds.add(assigned[i]);
+            }
+        }
+        
+        int speciesCount = speciesIds.size;
+        double[] sums = new double[speciesCount * traits];
+        int[] counts = new int[speciesCount * traits];
+        for (int i = 0; i < genomes.length; i++) {
+            if (genomes[i] == null || assigned[i] == NO_SPECIES) continue;
+            
+            int offset = rows.get(assigned[i], 0) * traits;
+            for (int trait = 0; trait < traits; trait++) {
+                if (genomes[i].hasTrait(trait)) {
+                    sums[offset + trait] += genomes[i].getTrait(trait, 0f);
+                    counts[offset + trait]++;
+                }
+            }
+        }
+        for (int k = 0; k < sums.length; k++) {
+            sums[k] = counts[k] == 0 ? Double.NaN : sums[k] / counts[k];
+        }
+        
+        // O novo representante é o membro mais próximo do centróide
+        Genome[] representatives = new Genome[speciesCount];
+        float[] bestDistance = new float[speciesCount];
+        Arrays.fill(bestDistance, Float.MAX_VALUE);
+        for (int i = 0; i < genomes.length; i++) {
+            if (genomes[i] == null || assigned[i] == NO_SPECIES) continue;
+            
+            int row = rows.get(assigned[i], 0);
+            float distance = distanceToCentroid(genomes[i], sums, row * traits, traits);
+            if (distance < bestDistance[row]) {
+                bestDistance[row] = distance;
+                representatives[row] = genomes[i];
+            }
+        }
+        
+        Array<Species> result = new Array<>(false, Math.max(16, speciesCount));
+        SpeciesIndex localIndex = new SpeciesIndex(threshold);
+        for (int row = 0; row < speciesCount; row++) {
+            Species s = new Species(speciesIds.items[row], representatives[row]);
+            result.add(s);
+            localIndex.add(s);
+        }
+        
+        // Reatribuir cada genoma ao representante mais compatível
+        int[] assignments = new int[genomes.length];
+        for (int i = 0; i < genomes.length; i++) {
+            if (genomes[i] == null) {
+                assignments[i] = NO_SPECIES;
+                continue;
+            }
+            
+            Species best = localIndex.findBest(genomes[i]);
+            if (best == null) {
+                best = new Species(nextId.getAndIncrement(), genomes[i]);
+                result.add(best);
+                localIndex.add(best);
+            }
+            assignments[i] = best.id;
+        }
+        
+        return new Result(result, assignments);
+    }
+    
+    private static float distanceToCentroid(Genome genome, double[] centroids, int offset, int traits) {
+        double total = 0.0;
+        int compared = 0;
+        for (int trait = 0; trait < traits; trait++) {
+            double centroid = centroids[offset + trait];
+            if (centroid != centroid || !genome.hasTrait(trait)) continue;
+            
+            total += Math.abs(genome.getTrait(trait, 0f) - centroid);
+            compared++;
+        }
+        return compared == 0 ? Float.MAX_VALUE : (float) (total / compared);
+    }
+    
+    /**
+     * Troca os representantes pelos recalculados e recalcula o número de membros
+     */
+    private void applyResult(Result result, Array<Creature> creatures) {
+        for (int i = 0; i < result.species.size; i++) {
+            Species updated = result.species.get(i);
+            Species current = species.get(updated.id);
+            
+            if (current == null) {
+                species.put(updated.id, updated);
+            } else {
+                index.remove(current);
+                current.representative = updated.representative;
+                updated = current;
+            }
+            index.add(updated);
+        }
+        
+        // Criaturas que continuam vivas desde a captura recebem a nova espécie
+        for (int i = 0; i < pendingCreatures.length; i++) {
+            Creature creature = pendingCreatures[i];
+            if (creature.isAlive() && creature.getId() == pendingIds[i]) {
+                creature.setCluster(result.assignments[i]);
+            }
+        }
+        
+        recount(creatures);
+    }
+    
+    /**
+     * Recalcula o número de membros e remove as espécies vazias
+     */
+    private void recount(Array<Creature> creatures) {
+        for (Species s : species.values()) {
+            s.members = 0;
+        }
+        
+        for (int i = 0; i < creatures.size; i++) {
+            Species s = species.get(creatures.get(i).getCluster());
+            if (s != null) {
+                s.members++;
+            }
+        }
+        
+        IntMap.Entries<Species> entries = species.entries();
+        while (entries.hasNext()) {
+            Species s = entries.next().value;
+            if (s.members == 0) {
+                index.remove(s);
+                entries.remove();
+            }
+        }
+    }
+    
+    /**
+     * Descarta todas as espécies (as criaturas devem ser registradas de novo)
+     */
+    public void clear() {
+        species.clear();
+        index.clear();
+        pending = null;
+        pendingCreatures = null;
+        pendingIds = null;
+    }
+    
+    /**
+     * Define a compatibilidade mínima entre um genoma e o representante da espécie.
+     * Os representantes são reindexados imediatamente.
+     * @param threshold Valor entre 0 e 1 (exclusivos)
+     */
+    public void setThreshold(float threshold) {
+        if (!(threshold > 0f && threshold < 1f)) {
+            throw new IllegalArgumentException("Limiar de compatibilidade inválido: " + threshold);
+        }
+        
+        this.threshold = threshold;
+        index.setThreshold(threshold);
+        for (Species s : species.values()) {
+            index.add(s);
+        }
+    }
+    
+    /**
+     * Define o intervalo entre reagrupamentos
+     * @param ticks Ticks entre reagrupamentos (maior que zero)
+     */
+    public void setReclusterInterval(int ticks) {
+        if (ticks <= 0) {
+            throw new IllegalArgumentException("Intervalo de reagrupamento inválido: " + ticks);
+        }
+        this.reclusterInterval = ticks;
+    }
+    
+    /**
+     * Define onde o reagrupamento é executado
+     * @param executor Executor (null executa na própria thread da simulação)
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor != null ? executor : Runnable::run;
+    }
+    
+    // Getters
+    public Species getSpecies(int speciesId) {
+        return species.get(speciesId);
+    }
+    
+    public int getSpeciesCount() {
+        return species.size;
+    }
+    
+    public float getThreshold() {
+        return threshold;
+    }
+    
+    public int getReclusterInterval() {
+        return reclusterInterval;
+    }
+    
+    public boolean isReclustering() {
+        return pending != null;
+    }
+    
+    /**
+     * Buckets de representantes por conjunto de traços e células das projeções
+     */
+    private static final class SpeciesIndex {
+        // Eixos de projeção; a busca visita as 3^AXES células vizinhas,
+        // numeradas em base 3 (dígito = deslocamento no eixo + 1)
+        private static final int AXES = 3;
+        private static final int NEIGHBOURS = 3 * 3 * 3;
+        private static final int CENTER = NEIGHBOURS / 2;
+        
+        private final LongMap<Array<Species>> buckets = new LongMap<>();
+        private float threshold;
+        private float cellSize;
+        
+        // Resultado da última projeção
+        private long mask;
+        private final int[] cells = new int[AXES];
+        private final float[] projection = new float[AXES];
+        
+        SpeciesIndex(float threshold) {
+            setThreshold(threshold);
+        }
+        
+        void setThreshold(float threshold) {
+            this.threshold = threshold;
+            this.cellSize = 1f - threshold;
+            buckets.clear();
+        }
+        
+        void add(Species s) {
+            project(s.representative);
+            s.key = key(mask, cells, CENTER);
+            
+            Array<Species> bucket = buckets.get(s.key);
+            if (bucket == null) {
+                bucket = new Array<>(false, 4);
+                buckets.put(s.key, bucket);
+            }
+            bucket.add(s);
+        }
+        
+        void remove(Species s) {
+            Array<Species> bucket = buckets.get(s.key);
+            if (bucket != null && bucket.removeValue(s, true) && bucket.size == 0) {
+                buckets.remove(s.key);
+            }
+        }
+        
+        void clear() {
+            buckets.clear();
+        }
+        
+        /**
+         * Procura o representante mais compatível nas células vizinhas
+         * @return Espécie compatível, ou null se nenhuma atingir o limiar
+         */
+        Species findBest(Genome genome) {
+            project(genome);
+            
+            Species best = null;
+            float bestCompatibility = threshold;
+            
+            for (int neighbour = 0; neighbour < NEIGHBOURS; neighbour++) {
+                Array<Species> bucket = buckets.get(key(mask, cells, neighbour));
+                if (bucket == null) continue;
+                
+                for (int i = 0; i < bucket.size; i++) {
+                    Species candidate = bucket.get(i);
+                    float compatibility = genome.calculateCompatibility(candidate.representative);
+                    if (compatibility > bestCompatibility || (best == null && compatibility == bestCompatibility)) {
+                        best = candidate;
+                        bestCompatibility = compatibility;
+                    }
+                }
+            }
+            return best;
+        }
+        
+        /**
+         * Projeta um genoma nos eixos com pesos ±1, normalizados pelo número
+         * de traços presentes, e guarda as células e o conjunto de traços
+         */
+        private void project(Genome genome) {
+            long presence = 0L;
+            int present = 0;
+            Arrays.fill(projection, 0f);
+            
+            int traits = TraitRegistry.count();
+            for (int trait = 0; trait < traits; trait++) {
+                if (!genome.hasTrait(trait)) continue;
+                
+                float value = genome.getTrait(trait, 0f);
+                int hash = trait * 0x9E3779B9;
+                for (int axis = 0; axis < AXES; axis++) {
+                    projection[axis] += (hash & (0x40000000 >>> axis)) != 0 ? value : -value;
+                }
+                presence |= 1L << (trait & 63);
+                present++;
+            }
+            
+            mask = presence;
+            for (int axis = 0; axis < AXES; axis++) {
+                float value = present > 0 ? projection[axis] / present : 0f;
+                cells[axis] = (int) Math.floor((value + 1f) / cellSize);
+            }
+        }
+        
+        /**
+         * Chave do bucket das células deslocadas pelo vizinho indicado
+         */
+        private static long key(long mask, int[] cells, int neighbour) {
+            long key = mask;
+            for (int axis = 0; axis < cells.length; axis++) {
+                key = key * 0x9E3779B97F4A7C15L + cells[axis] + neighbour % 3 - 1;
+                neighbour /= 3;
+            }
+            return key;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.evolution.sim.world;
+
+import java.util.Arrays;
+
+/**
+ * Origem dos chunks de um ChunkedTerrainStorage: gera ou carrega o terreno
+ * de um chunk quando ele é acessado pela primeira vez (ou depois de ser despejado).
+ * Pode ser chamada de qualquer thread que acesse o mapa. Instantâneos do mapa
+ * (ChunkedTerrainStorage.snapshot()) leem da mesma origem em outra thread, então
+ * load() deve ser seguro para chamadas concorrentes e gerar sempre o mesmo terreno
+ * para o mesmo chunk.
+ */
+public interface ChunkSource {
+    /**
+     * Preenche os tiles de um chunk
+     * @param chunkX Coluna do chunk
+     * @param chunkY Linha do chunk
+     * @param chunkSize Lado do chunk em tiles
+     * @param tiles Ordinais de terreno, linha a linha (índice = y * chunkSize + x)
+     */
+    void load(int chunkX, int chunkY, int chunkSize, byte[] tiles);
+    
+    /**
+     * Guarda um chunk alterado que está saindo da memória
+     * @return true se o chunk foi persistido; false faz o armazenamento manter uma cópia
+     */
+    default boolean save(int chunkX, int chunkY, int chunkSize, byte[] tiles) {
+        return false;
+    }
+    
+    /**
+     * Origem que preenche todos os chunks com o mesmo terreno
+     * @param type Tipo de terreno
+     */
+    static ChunkSource filled(TerrainType type) {
+        byte ordinal = (byte) type.ordinal();
+        return (chunkX, chunkY, chunkSize, tiles) -> Arrays.fill(tiles, ordinal);
+    }
+}
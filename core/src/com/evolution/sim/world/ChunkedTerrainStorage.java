@@ -0,0 +1,251 @@
+package com.evolution.sim.world;
+
+import com.badlogic.gdx.utils.LongMap;
+
+import java.util.Arrays;
+
+/**
+ * Terreno dividido em chunks quadrados de CHUNK_SIZE tiles, carregados sob demanda.
+ * Só um número limitado de chunks fica em memória: ao passar do limite, um chunk
+ * pouco usado é despejado (algoritmo do relógio, ver ResidentTable) e, se foi
+ * alterado, devolvido à ChunkSource.
+ * Chunks alterados que a origem não consegue persistir são mantidos à parte,
+ * então a memória cresce com a área ativa e com a área editada, e não com o mapa.
+ *
+ * As leituras (get, getRow) não usam lock, já que as threads da atualização
+ * paralela consultam o terreno o tempo todo: um chunk em memória é encontrado
+ * com uma leitura na tabela. Carregar, despejar e alterar chunks é sincronizado,
+ * e como os despejos só acontecem com o lock, uma escrita nunca cai em um chunk
+ * já despejado. Uma leitura concorrente a uma escrita pode ver o tile antigo.
+ */
+public class ChunkedTerrainStorage implements TerrainStorage {
+    // Lado dos chunks em tiles (potência de 2)
+    public static final int CHUNK_SHIFT = 6;
+    public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    
+    // Chunks em memória por padrão (64 x 64 bytes cada)
+    public static final int DEFAULT_MAX_RESIDENT = 1024;
+    
+    private final int width;
+    private final int height;
+    private final int chunksX;
+    private final int maxResident;
+    private ChunkSource source;
+    
+    // Chunks em memória, por índice (chunkY * chunksX + chunkX)
+    private final ResidentTable<Chunk> resident;
+    
+    // Chunks alterados que saíram da memória sem serem persistidos, por índice
+    private final LongMap<byte[]> edited = new LongMap<>();
+    
+    // Instantâneos nunca devolvem chunks à origem
+    private boolean readOnlySource;
+    
+    // Estatísticas
+    private long loads;
+    private long evictions;
+    
+    /**
+     * Chunk em memória
+     */
+    private static final class Chunk extends ResidentTable.Entry {
+        final int chunkX;
+        final int chunkY;
+        final byte[] tiles = new byte[CHUNK_SIZE * CHUNK_SIZE];
+        boolean dirty;
+        
+        Chunk(long index, int chunkX, int chunkY) {
+            super(index);
+            this.chunkX = chunkX;
+            this.chunkY = chunkY;
+        }
+    }
+    
+    public ChunkedTerrainStorage(int width, int height, ChunkSource source) {
+        this(width, height, source, DEFAULT_MAX_RESIDENT);
+    }
+    
+    /**
+     * @param width Largura do mapa em tiles
+     * @param height Altura do mapa em tiles
+     * @param source Origem dos chunks
+     * @param maxResident Número máximo de chunks em memória (pelo menos 1)
+     */
+    public ChunkedTerrainStorage(int width, int height, ChunkSource source, int maxResident) {
+        if (maxResident < 1) {
+            throw new IllegalArgumentException("Número de chunks em memória inválido: " + maxResident);
+        }
+        
+        this.width = width;
+        this.height = height;
+        this.source = source;
+        this.maxResident = maxResident;
+        this.chunksX = (width + CHUNK_MASK) >> CHUNK_SHIFT;
+        int chunksY = (height + CHUNK_MASK) >> CHUNK_SHIFT;
+        this.resident = new ResidentTable<>((long) chunksX * chunksY, maxResident);
+    }
+    
+    @Override
+    public byte get(int x, int y) {
+        return chunk(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT).tiles[((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK)];
+    }
+    
+    @Override
+    public synchronized void set(int x, int y, byte ordinal) {
+        Chunk chunk = chunk(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT);
+        chunk.tiles[((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK)] = ordinal;
+        chunk.dirty = true;
+    }
+    
+    /**
+     * Descarta todos os chunks e passa a gerar todos preenchidos com o terreno
+     */
+    @Override
+    public synchronized void fill(byte ordinal) {
+        resident.clear();
+        edited.clear();
+        source = (chunkX, chunkY, chunkSize, tiles) -> Arrays.fill(tiles, ordinal);
+    }
+    
+    @Override
+    public void getRow(int y, int fromX, int count, byte[] out, int offset) {
+        int rowOffset = (y & CHUNK_MASK) << CHUNK_SHIFT;
+        int x = fromX;
+        int end = fromX + count;
+        
+        // Copiar o trecho de cada chunk atravessado pela linha
+        while (x < end) {
+            int inChunk = x & CHUNK_MASK;
+            int length = Math.min(CHUNK_SIZE - inChunk, end - x);
+            Chunk chunk = chunk(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT);
+            System.arraycopy(chunk.tiles, rowOffset + inChunk, out, offset + (x - fromX), length);
+            x += length;
+        }
+    }
+    
+    @Override
+    public synchronized void setRow(int y, int fromX, int count, byte[] in, int offset) {
+        int rowOffset = (y & CHUNK_MASK) << CHUNK_SHIFT;
+        int x = fromX;
+        int end = fromX + count;
+        
+        while (x < end) {
+            int inChunk = x & CHUNK_MASK;
+            int length = Math.min(CHUNK_SIZE - inChunk, end - x);
+            Chunk chunk = chunk(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT);
+            System.arraycopy(in, offset + (x - fromX), chunk.tiles, rowOffset + inChunk, length);
+            chunk.dirty = true;
+            x += length;
+        }
+    }
+    
+    /**
+     * Copia só os chunks alterados (em memória ou despejados); os demais são
+     * gerados de novo pela origem quando o instantâneo for lido, então a origem
+     * deve produzir sempre o mesmo terreno para o mesmo chunk
+     */
+    @Override
+    public synchronized TerrainStorage snapshot() {
+        ChunkedTerrainStorage copy = new ChunkedTerrainStorage(width, height, source, maxResident);
+        copy.readOnlySource = true;
+        
+        for (LongMap.Entry<byte[]> entry : edited) {
+            copy.edited.put(entry.key, entry.value.clone());
+        }
+        for (int i = 0; i < resident.size(); i++) {
+            Chunk chunk = resident.entryAt(i);
+            if (chunk.dirty) {
+                copy.edited.put(chunk.index, chunk.tiles.clone());
+            }
+        }
+        return copy;
+    }
+    
+    /**
+     * Devolve à origem todos os chunks alterados, mantendo-os em memória
+     */
+    public synchronized void flush() {
+        if (readOnlySource) return;
+        
+        for (int i = 0; i < resident.size(); i++) {
+            Chunk chunk = resident.entryAt(i);
+            if (chunk.dirty && source.save(chunk.chunkX, chunk.chunkY, CHUNK_SIZE, chunk.tiles)) {
+                chunk.dirty = false;
+            }
+        }
+    }
+    
+    /**
+     * Obtém um chunk, sem lock se ele já estiver em memória
+     */
+    private Chunk chunk(int chunkX, int chunkY) {
+        Chunk chunk = resident.get((long) chunkY * chunksX + chunkX);
+        return chunk != null ? chunk : load(chunkX, chunkY);
+    }
+    
+    private synchronized Chunk load(int chunkX, int chunkY) {
+        long index = (long) chunkY * chunksX + chunkX;
+        
+        // Outra thread pode ter carregado o chunk enquanto esta esperava o lock
+        Chunk chunk = resident.get(index);
+        if (chunk != null) {
+            return chunk;
+        }
+        
+        chunk = new Chunk(index, chunkX, chunkY);
+        byte[] saved = edited.remove(index);
+        if (saved != null) {
+            System.arraycopy(saved, 0, chunk.tiles, 0, saved.length);
+            chunk.dirty = true;
+        } else {
+            source.load(chunkX, chunkY, CHUNK_SIZE, chunk.tiles);
+        }
+        loads++;
+        
+        // Publicar só depois de preenchido
+        Chunk evicted = resident.put(chunk);
+        if (evicted != null) {
+            evict(evicted);
+        }
+        return chunk;
+    }
+    
+    private void evict(Chunk chunk) {
+        if (chunk.dirty && (readOnlySource || !source.save(chunk.chunkX, chunk.chunkY, CHUNK_SIZE, chunk.tiles))) {
+            edited.put(chunk.index, chunk.tiles);
+        }
+        evictions++;
+    }
+    
+    // Getters
+    @Override
+    public int getWidth() {
+        return width;
+    }
+    
+    @Override
+    public int getHeight() {
+        return height;
+    }
+    
+    public synchronized int getResidentChunks() {
+        return resident.size();
+    }
+    
+    public synchronized int getEditedChunks() {
+        return edited.size;
+    }
+    
+    public synchronized long getLoads() {
+        return loads;
+    }
+    
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+    
+    public int getMaxResident() {
+        return maxResident;
+    }
+}
@@ -0,0 +1,72 @@
+package com.evolution.sim.world;
+
+import java.util.Arrays;
+
+/**
+ * Terreno inteiro em memória, em um array de bytes linha a linha
+ * (índice = y * width + x). Adequado para mapas que cabem na memória.
+ */
+public class DenseTerrainStorage implements TerrainStorage {
+    private final int width;
+    private final int height;
+    private final byte[] tiles;
+    
+    public DenseTerrainStorage(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.tiles = new byte[width * height];
+    }
+    
+    private DenseTerrainStorage(int width, int height, byte[] tiles) {
+        this.width = width;
+        this.height = height;
+        this.tiles = tiles;
+    }
+    
+    @Override
+    public byte get(int x, int y) {
+        return tiles[y * width + x];
+    }
+    
+    @Override
+    public void set(int x, int y, byte ordinal) {
+        tiles[y * width + x] = ordinal;
+    }
+    
+    @Override
+    public void fill(byte ordinal) {
+        Arrays.fill(tiles, ordinal);
+    }
+    
+    @Override
+    public void getRow(int y, int fromX, int count, byte[] out, int offset) {
+        System.arraycopy(tiles, y * width + fromX, out, offset, count);
+    }
+    
+    @Override
+    public void setRow(int y, int fromX, int count, byte[] in, int offset) {
+        System.arraycopy(in, offset, tiles, y * width + fromX, count);
+    }
+    
+    @Override
+    public TerrainStorage snapshot() {
+        return new DenseTerrainStorage(width, height, tiles.clone());
+    }
+    
+    /**
+     * Obtém o array de tiles (o próprio armazenamento, não uma cópia)
+     */
+    public byte[] getTiles() {
+        return tiles;
+    }
+    
+    @Override
+    public int getWidth() {
+        return width;
+    }
+    
+    @Override
+    public int getHeight() {
+        return height;
+    }
+}
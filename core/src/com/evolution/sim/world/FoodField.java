@@ -0,0 +1,392 @@
+package com.evolution.sim.world;
+
+import java.util.Arrays;
+
+/**
+ * Campo de distância até o tile comestível (grama ou floresta) mais próximo.
+ * É calculado com uma busca em largura a partir de todos os tiles comestíveis
+ * ao mesmo tempo e guarda, para cada tile, a distância em passos (8 vizinhos)
+ * e o índice do tile comestível mais próximo, de forma que a consulta é O(1).
+ *
+ * Tiles que passam a ser comestíveis são propagados na hora; tiles que deixam
+ * de ser marcam o campo como sujo, e ele é recalculado na próxima consulta.
+ *
+ * Em mapas que não ficam inteiros na memória (em chunks ou mapeados de um
+ * arquivo) e em mapas densos com mais de WorldMap.DENSE_TILE_LIMIT tiles, em que
+ * o campo completo ocuparia 12 bytes por tile, o campo não é calculado para o mapa inteiro:
+ * cada região de REGION_SIZE tiles é calculada quando consultada, com uma borda
+ * de REGION_MARGIN tiles, e as regiões ficam em uma ResidentTable. A distância é
+ * exata até REGION_MARGIN passos; comida mais distante conta como inalcançável.
+ * As consultas a regiões já calculadas não usam lock; uma região que falta é
+ * calculada fora do lock pela thread que a consultou e publicada só se nenhuma
+ * outra thread a publicou antes e o terreno não mudou durante o cálculo.
+ * Os índices retornados são y * width + x, então o mapa deve ter menos de 2^31 tiles.
+ */
+public class FoodField {
+    // Distância de tiles sem nenhum tile comestível alcançável
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+    
+    private final WorldMap worldMap;
+    
+    // Dimensões do campo calculado (podem mudar ao carregar um mapa)
+    private int width;
+    private int height;
+    
+    // Dados por tile, indexados por y * width + x
+    private int[] distance = new int[0];
+    private int[] nearest = new int[0];
+    private int[] queue = new int[0];
+    
+    // Precisa de recálculo completo antes da próxima consulta
+    private volatile boolean dirty = true;
+    
+    // Regiões calculadas sob demanda (mapas em chunks)
+    static final int REGION_SHIFT = 6;
+    static final int REGION_SIZE = 1 << REGION_SHIFT;
+    static final int REGION_MARGIN = 32;
+    static final int MAX_REGIONS = 256;
+    private boolean regional;
+    private int regionsX;
+    private int regionsY;
+    private ResidentTable<Region> regions;
+    
+    // Protege as alterações da tabela de regiões
+    private final Object regionLock = new Object();
+    
+    // Muda a cada alteração de terreno que descarta regiões
+    private volatile int regionVersion;
+    
+    // Rascunho da busca em uma janela (região + borda), por thread
+    private final ThreadLocal<WindowScratch> scratch = new ThreadLocal<WindowScratch>() {
+        @Override
+        protected WindowScratch initialValue() {
+            return new WindowScratch();
+        }
+    };
+    
+    /**
+     * Campo calculado de uma região, indexado por (y local) * REGION_SIZE + (x local)
+     */
+    private static final class Region extends ResidentTable.Entry {
+        final int[] distance = new int[REGION_SIZE * REGION_SIZE];
+        final int[] nearest = new int[REGION_SIZE * REGION_SIZE];
+        
+        Region(long index) {
+            super(index);
+        }
+    }
+    
+    /**
+     * Memória temporária de uma thread para calcular regiões
+     */
+    private static final class WindowScratch {
+        int[] distance = new int[0];
+        int[] nearest = new int[0];
+        int[] queue = new int[0];
+        byte[] row = new byte[0];
+    }
+    
+    FoodField(WorldMap worldMap) {
+        this.worldMap = worldMap;
+    }
+    
+    /**
+     * Atualiza o campo após a troca do terreno de um tile
+     * @param x Coluna do tile
+     * @param y Linha do tile
+     * @param oldType Terreno anterior
+     * @param newType Terreno novo
+     */
+    void onTerrainChanged(int x, int y, TerrainType oldType, TerrainType newType) {
+        if (oldType.isEdible() == newType.isEdible() || dirty) {
+            return;
+        }
+        
+        if (regional) {
+            // Descartar as regiões cuja janela contém o tile
+            int maxRegionX = Math.min(regionsX - 1, (x + REGION_MARGIN) >> REGION_SHIFT);
+            int maxRegionY = Math.min(regionsY - 1, (y + REGION_MARGIN) >> REGION_SHIFT);
+            synchronized (regionLock) {
+                regionVersion++;
+                for (int regionY = Math.max(0, y - REGION_MARGIN) >> REGION_SHIFT; regionY <= maxRegionY; regionY++) {
+                    for (int regionX = Math.max(0, x - REGION_MARGIN) >> REGION_SHIFT; regionX <= maxRegionX; regionX++) {
+                        regions.remove((long) regionY * regionsX + regionX);
+                    }
+                }
+            }
+            return;
+        }
+        
+        if (newType.isEdible()) {
+            // Nova fonte de comida: só diminui distâncias, então basta propagar a partir dela
+            int index = y * width + x;
+            distance[index] = 0;
+            nearest[index] = index;
+            queue[0] = index;
+            propagate(1);
+        } else {
+            // Comida removida: os tiles que dependiam dela precisam de outra fonte
+            dirty = true;
+        }
+    }
+    
+    /**
+     * Marca o campo para recálculo completo (ex.: mapa preenchido ou carregado)
+     */
+    void invalidate() {
+        dirty = true;
+    }
+    
+    /**
+     * Recalcula o campo se houver mudanças pendentes. Chamado automaticamente
+     * pelas consultas; a simulação o chama antes da atualização paralela para
+     * que as threads nunca disputem o recálculo.
+     */
+    public void ensureUpdated() {
+        if (!dirty) return;
+        
+        synchronized (this) {
+            if (dirty) {
+                recompute();
+                dirty = false;
+            }
+        }
+    }
+    
+    /**
+     * Obtém o tile comestível mais próximo de um tile
+     * @param x Coluna do tile
+     * @param y Linha do tile
+     * @return Índice (y * largura + x) do tile comestível ou -1 se não houver
+     */
+    public int getNearestFood(int x, int y) {
+        ensureUpdated();
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return -1;
+        }
+        if (regional) {
+            return region(x, y).nearest[regionIndex(x, y)];
+        }
+        return nearest[y * width + x];
+    }
+    
+    /**
+     * Obtém a distância em passos até o tile comestível mais próximo
+     * @param x Coluna do tile
+     * @param y Linha do tile
+     * @return Distância em tiles ou UNREACHABLE
+     */
+    public int getDistance(int x, int y) {
+        ensureUpdated();
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return UNREACHABLE;
+        }
+        if (regional) {
+            return region(x, y).distance[regionIndex(x, y)];
+        }
+        return distance[y * width + x];
+    }
+    
+    /**
+     * Coluna de um índice retornado por getNearestFood()
+     */
+    public int tileX(int index) {
+        return index % width;
+    }
+    
+    /**
+     * Linha de um índice retornado por getNearestFood()
+     */
+    public int tileY(int index) {
+        return index / width;
+    }
+    
+    private void recompute() {
+        width = worldMap.getWidth();
+        height = worldMap.getHeight();
+        regional = !worldMap.isDense() || (long) width * height > WorldMap.DENSE_TILE_LIMIT;
+        
+        if (regional) {
+            regionsX = (width + REGION_SIZE - 1) >> REGION_SHIFT;
+            regionsY = (height + REGION_SIZE - 1) >> REGION_SHIFT;
+            synchronized (regionLock) {
+                regionVersion++;
+                regions = new ResidentTable<>((long) regionsX * regionsY, MAX_REGIONS);
+            }
+            
+            // As regiões são calculadas sob demanda; liberar o campo denso
+            distance = new int[0];
+            nearest = new int[0];
+            queue = new int[0];
+            return;
+        }
+        
+        int tileCount = width * height;
+        
+        if (distance.length != tileCount) {
+            distance = new int[tileCount];
+            nearest = new int[tileCount];
+            queue = new int[tileCount];
+        }
+        Arrays.fill(distance, UNREACHABLE);
+        Arrays.fill(nearest, -1);
+        
+        // Todos os tiles comestíveis são fontes da busca
+        int queued = 0;
+        byte[] terrain = worldMap.getTerrainData();
+        for (int index = 0; index < tileCount; index++) {
+            if (TerrainType.fromOrdinal(terrain[index]).isEdible()) {
+                distance[index] = 0;
+                nearest[index] = index;
+                queue[queued++] = index;
+            }
+        }
+        
+        propagate(queued);
+    }
+    
+    /**
+     * Obtém (calculando se preciso) a região que contém um tile
+     */
+    private Region region(int x, int y) {
+        int regionX = x >> REGION_SHIFT;
+        int regionY = y >> REGION_SHIFT;
+        long index = (long) regionY * regionsX + regionX;
+        
+        ResidentTable<Region> table = regions;
+        Region region = table.get(index);
+        if (region != null) {
+            return region;
+        }
+        
+        // Calcular fora do lock; outras threads podem calcular a mesma região ao mesmo tempo
+        int version = regionVersion;
+        region = computeRegion(index, regionX, regionY);
+        
+        synchronized (regionLock) {
+            Region existing = table.get(index);
+            if (existing != null) {
+                return existing;
+            }
+            
+            // Uma região calculada com terreno que mudou no meio do cálculo é usada só desta vez
+            if (version == regionVersion && table == regions) {
+                table.put(region);
+            }
+        }
+        return region;
+    }
+    
+    /**
+     * Busca em largura na janela formada pela região e sua borda
+     */
+    private Region computeRegion(long regionIndex, int regionX, int regionY) {
+        int minX = Math.max(0, (regionX << REGION_SHIFT) - REGION_MARGIN);
+        int minY = Math.max(0, (regionY << REGION_SHIFT) - REGION_MARGIN);
+        int maxX = Math.min(width, ((regionX + 1) << REGION_SHIFT) + REGION_MARGIN);
+        int maxY = Math.min(height, ((regionY + 1) << REGION_SHIFT) + REGION_MARGIN);
+        int windowWidth = maxX - minX;
+        int windowHeight = maxY - minY;
+        int windowSize = windowWidth * windowHeight;
+        
+        WindowScratch window = scratch.get();
+        if (window.distance.length < windowSize) {
+            window.distance = new int[windowSize];
+            window.nearest = new int[windowSize];
+            window.queue = new int[windowSize];
+        }
+        if (window.row.length < windowWidth) {
+            window.row = new byte[windowWidth];
+        }
+        int[] windowDistance = window.distance;
+        int[] windowNearest = window.nearest;
+        int[] windowQueue = window.queue;
+        byte[] rowBuffer = window.row;
+        Arrays.fill(windowDistance, 0, windowSize, UNREACHABLE);
+        
+        // Tiles comestíveis da janela são as fontes
+        int queued = 0;
+        for (int y = 0; y < windowHeight; y++) {
+            worldMap.getTerrainRow(minY + y, minX, windowWidth, rowBuffer);
+            for (int x = 0; x < windowWidth; x++) {
+                if (TerrainType.fromOrdinal(rowBuffer[x]).isEdible()) {
+                    int index = y * windowWidth + x;
+                    windowDistance[index] = 0;
+                    windowNearest[index] = (minY + y) * width + (minX + x);
+                    windowQueue[queued++] = index;
+                }
+            }
+        }
+        
+        // Mesma busca de propagate(), limitada à janela
+        int head = 0;
+        while (head < queued) {
+            int index = windowQueue[head++];
+            int x = index % windowWidth;
+            int y = index / windowWidth;
+            int nextDistance = windowDistance[index] + 1;
+            int source = windowNearest[index];
+            
+            for (int ny = Math.max(0, y - 1); ny <= Math.min(windowHeight - 1, y + 1); ny++) {
+                for (int nx = Math.max(0, x - 1); nx <= Math.min(windowWidth - 1, x + 1); nx++) {
+                    int neighbour = ny * windowWidth + nx;
+                    if (windowDistance[neighbour] > nextDistance) {
+                        windowDistance[neighbour] = nextDistance;
+                        windowNearest[neighbour] = source;
+                        windowQueue[queued++] = neighbour;
+                    }
+                }
+            }
+        }
+        
+        // Copiar a parte interna; além da borda a distância não é confiável
+        Region region = new Region(regionIndex);
+        Arrays.fill(region.distance, UNREACHABLE);
+        Arrays.fill(region.nearest, -1);
+        int originX = regionX << REGION_SHIFT;
+        int originY = regionY << REGION_SHIFT;
+        for (int y = originY; y < Math.min(height, originY + REGION_SIZE); y++) {
+            for (int x = originX; x < Math.min(width, originX + REGION_SIZE); x++) {
+                int windowIndex = (y - minY) * windowWidth + (x - minX);
+                int tileDistance = windowDistance[windowIndex];
+                if (tileDistance <= REGION_MARGIN) {
+                    int local = regionIndex(x, y);
+                    region.distance[local] = tileDistance;
+                    region.nearest[local] = windowNearest[windowIndex];
+                }
+            }
+        }
+        return region;
+    }
+    
+    private static int regionIndex(int x, int y) {
+        return ((y & (REGION_SIZE - 1)) << REGION_SHIFT) | (x & (REGION_SIZE - 1));
+    }
+    
+    /**
+     * Busca em largura a partir dos tiles já na fila, relaxando os vizinhos
+     * cuja distância diminui. Cada tile entra na fila no máximo uma vez.
+     */
+    private void propagate(int queued) {
+        int head = 0;
+        
+        while (head < queued) {
+            int index = queue[head++];
+            int x = index % width;
+            int y = index / width;
+            int nextDistance = distance[index] + 1;
+            int source = nearest[index];
+            
+            for (int ny = Math.max(0, y - 1); ny <= Math.min(height - 1, y + 1); ny++) {
+                for (int nx = Math.max(0, x - 1); nx <= Math.min(width - 1, x + 1); nx++) {
+                    int neighbour = ny * width + nx;
+                    if (distance[neighbour] > nextDistance) {
+                        distance[neighbour] = nextDistance;
+                        nearest[neighbour] = source;
+                        queue[queued++] = neighbour;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package com.evolution.sim.world;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Formato binário dos mapas salvos.
+ *
+ * Cabeçalho (sem compressão): assinatura "EVOM", versão (short), flags (byte),
+ * largura e altura (int) e a paleta, com o número de entradas (byte) seguido do
+ * nome de cada TerrainType (UTF). Os tiles guardam o índice na paleta, e não o
+ * ordinal, para que os arquivos continuem válidos se a enum for reordenada.
+ *
+ * Corpo (comprimido com deflate se FLAG_DEFLATE estiver ativa): cada linha do
+ * mapa, de y = 0 em diante, em sequências de (comprimento como varint, índice
+ * na paleta). As sequências não atravessam linhas.
+ *
+ * Com FLAG_RAW (versão 2), o corpo é um byte por tile, linha a linha, sem
+ * compressão: o arquivo fica maior, mas pode ser mapeado em memória e acessado
+ * diretamente (ver MappedTerrainStorage).
+ *
+ * A escrita e a leitura percorrem o mapa linha a linha, sem montar o arquivo
+ * inteiro em memória, então funcionam também com mapas divididos em chunks.
+ */
+public final class MapFormat {
+    public static final int MAGIC = 0x45564F4D; // "EVOM"
+    public static final short VERSION = 2;
+    
+    // Flags do cabeçalho
+    public static final int FLAG_DEFLATE = 1;
+    public static final int FLAG_RAW = 2;
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    // Maior array de bytes que a JVM costuma aceitar
+    private static final long MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+    
+    private MapFormat() {
+    }
+    
+    /**
+     * Cabeçalho lido de um arquivo de mapa
+     */
+    public static final class Header {
+        public final int version;
+        public final int flags;
+        public final int width;
+        public final int height;
+        
+        // Ordinal atual de cada índice da paleta do arquivo
+        final byte[] palette;
+        
+        // Posição do início do corpo no arquivo
+        public final long dataOffset;
+        
+        Header(int version, int flags, int width, int height, byte[] palette, long dataOffset) {
+            this.version = version;
+            this.flags = flags;
+            this.width = width;
+            this.height = height;
+            this.palette = palette;
+            this.dataOffset = dataOffset;
+        }
+        
+        public boolean isRaw() {
+            return (flags & FLAG_RAW) != 0;
+        }
+        
+        public long getTileCount() {
+            return (long) width * height;
+        }
+    }
+    
+    /**
+     * Escreve o mapa em um canal
+     * @param map Mapa a salvar
+     * @param channel Canal de destino (não é fechado)
+     * @param compress Comprimir o corpo com deflate
+     */
+    public static void write(WorldMap map, WritableByteChannel channel, boolean compress) throws IOException {
+        write(map.getStorage(), channel, compress);
+    }
+    
+    /**
+     * Escreve um terreno em um canal (ex.: um instantâneo tirado com TerrainStorage.snapshot())
+     * @param terrain Terreno a salvar
+     * @param channel Canal de destino (não é fechado)
+     * @param compress Comprimir o corpo com deflate
+     */
+    public static void write(TerrainStorage terrain, WritableByteChannel channel, boolean compress) throws IOException {
+        int width = terrain.getWidth();
+        int height = terrain.getHeight();
+        
+        BufferedOutputStream buffered = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+        writeHeader(buffered, compress ? FLAG_DEFLATE : 0, width, height);
+        
+        Deflater deflater = compress ? new Deflater(Deflater.DEFAULT_COMPRESSION) : null;
+        try {
+            OutputStream body = compress ? new DeflaterOutputStream(buffered, deflater, BUFFER_SIZE) : buffered;
+            byte[] row = new byte[width];
+            
+            // Cada sequência ocupa no máximo 5 bytes de comprimento e 1 de índice
+            byte[] encoded = new byte[width * 6];
+            
+            for (int y = 0; y < height; y++) {
+                terrain.getRow(y, 0, width, row, 0);
+                
+                // Codificar a linha inteira antes de escrever, em uma só chamada
+                int length = 0;
+                int x = 0;
+                while (x < width) {
+                    byte value = row[x];
+                    int run = 1;
+                    while (x + run < width && row[x + run] == value) {
+                        run++;
+                    }
+                    length = writeVarInt(encoded, length, run);
+                    encoded[length++] = value;
+                    x += run;
+                }
+                body.write(encoded, 0, length);
+            }
+            
+            if (body instanceof DeflaterOutputStream) {
+                ((DeflaterOutputStream) body).finish();
+            }
+            buffered.flush();
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+    }
+    
+    /**
+     * Escreve o mapa com um byte por tile, sem compressão, para ser mapeado em memória
+     * @param map Mapa a salvar
+     * @param channel Canal de destino (não é fechado)
+     */
+    public static void writeRaw(WorldMap map, WritableByteChannel channel) throws IOException {
+        writeRaw(map.getStorage(), channel);
+    }
+    
+    /**
+     * Escreve um terreno com um byte por tile, sem compressão
+     * @param terrain Terreno a salvar
+     * @param channel Canal de destino (não é fechado)
+     */
+    public static void writeRaw(TerrainStorage terrain, WritableByteChannel channel) throws IOException {
+        int width = terrain.getWidth();
+        int height = terrain.getHeight();
+        
+        BufferedOutputStream buffered = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+        writeHeader(buffered, FLAG_RAW, width, height);
+        
+        // Paleta completa, então o índice na paleta é o próprio ordinal
+        byte[] row = new byte[width];
+        for (int y = 0; y < height; y++) {
+            terrain.getRow(y, 0, width, row, 0);
+            buffered.write(row, 0, width);
+        }
+        buffered.flush();
+    }
+    
+    /**
+     * Escreve o cabeçalho, com a paleta completa (índice na paleta = ordinal atual)
+     */
+    static void writeHeader(OutputStream out, int flags, int width, int height) throws IOException {
+        DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(MAGIC);
+        header.writeShort(VERSION);
+        header.writeByte(flags);
+        header.writeInt(width);
+        header.writeInt(height);
+        
+        TerrainType[] types = TerrainType.values();
+        header.writeByte(types.length);
+        for (TerrainType type : types) {
+            header.writeUTF(type.name());
+        }
+        header.flush();
+    }
+    
+    /**
+     * Lê o cabeçalho de um mapa
+     * @param channel Canal posicionado no início do arquivo
+     * @return Cabeçalho, com a posição do corpo
+     * @throws IOException Se o arquivo não estiver no formato
+     */
+    public static Header readHeader(ReadableByteChannel channel) throws IOException {
+        return readHeader(new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1024)));
+    }
+    
+    private static Header readHeader(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("O arquivo não é um mapa binário");
+        }
+        short version = in.readShort();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Versão de mapa não suportada: " + version);
+        }
+        int flags = in.readUnsignedByte();
+        if ((flags & ~(FLAG_DEFLATE | FLAG_RAW)) != 0 || flags == (FLAG_DEFLATE | FLAG_RAW)) {
+            throw new IOException("Flags de mapa inválidas: " + flags);
+        }
+        int width = in.readInt();
+        int height = in.readInt();
+        if (width <= 0 || height <= 0) {
+            throw new IOException("Dimensões de mapa inválidas: " + width + "x" + height);
+        }
+        long offset = 4 + 2 + 1 + 4 + 4 + 1;
+        
+        // Converter a paleta do arquivo para os ordinais atuais
+        int paletteSize = in.readUnsignedByte();
+        byte[] palette = new byte[paletteSize];
+        for (int i = 0; i < paletteSize; i++) {
+            int length = in.readUnsignedShort();
+            byte[] encoded = new byte[length];
+            in.readFully(encoded);
+            offset += 2 + length;
+            
+            String name = new String(encoded, StandardCharsets.UTF_8);
+            try {
+                palette[i] = (byte) TerrainType.valueOf(name).ordinal();
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Terreno desconhecido no mapa: " + name);
+            }
+        }
+        return new Header(version, flags, width, height, palette, offset);
+    }
+    
+    /**
+     * Lê um mapa de um canal
+     * @param channel Canal de origem, posicionado no início do arquivo (não é fechado)
+     * @return Armazenamento com o terreno: em memória se couber, senão em um arquivo
+     *         bruto temporário mapeado em memória
+     * @throws IOException Se o arquivo não estiver no formato ou estiver corrompido
+     */
+    public static TerrainStorage read(ReadableByteChannel channel) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE);
+        Header header = readHeader(new DataInputStream(buffered));
+        int width = header.width;
+        int height = header.height;
+        byte[] palette = header.palette;
+        int paletteSize = palette.length;
+        
+        // Chunks não ajudariam aqui: todos seriam escritos e ficariam em memória
+        TerrainStorage storage = fitsInMemory(header.getTileCount())
+                ? new DenseTerrainStorage(width, height)
+                : MappedTerrainStorage.createTemporary(width, height);
+        
+        if (header.isRaw()) {
+            readRawBody(buffered, header, storage);
+            return storage;
+        }
+        
+        Inflater inflater = (header.flags & FLAG_DEFLATE) != 0 ? new Inflater() : null;
+        try {
+            InputStream body = inflater != null
+                    ? new BufferedInputStream(new InflaterInputStream(buffered, inflater, BUFFER_SIZE), BUFFER_SIZE)
+                    : buffered;
+            byte[] row = new byte[width];
+            
+            for (int y = 0; y < height; y++) {
+                int x = 0;
+                while (x < width) {
+                    int run = readVarInt(body);
+                    int index = body.read();
+                    if (index < 0) {
+                        throw new EOFException("Mapa truncado na linha " + y);
+                    }
+                    if (run <= 0 || run > width - x || index >= paletteSize) {
+                        throw new IOException("Dados de terreno corrompidos na linha " + y);
+                    }
+                    
+                    byte ordinal = palette[index];
+                    for (int end = x + run; x < end; x++) {
+                        row[x] = ordinal;
+                    }
+                }
+                storage.setRow(y, 0, width, row, 0);
+            }
+        } finally {
+            if (inflater != null) {
+                inflater.end();
+            }
+        }
+        return storage;
+    }
+    
+    /**
+     * Indica se um mapa pode ser lido inteiro para um array, deixando folga na memória
+     */
+    private static boolean fitsInMemory(long tiles) {
+        return tiles <= MAX_ARRAY_SIZE && tiles <= Runtime.getRuntime().maxMemory() / 4;
+    }
+    
+    private static void readRawBody(InputStream in, Header header, TerrainStorage storage) throws IOException {
+        DataInputStream body = new DataInputStream(in);
+        byte[] row = new byte[header.width];
+        
+        for (int y = 0; y < header.height; y++) {
+            body.readFully(row);
+            for (int x = 0; x < row.length; x++) {
+                int index = row[x] & 0xFF;
+                if (index >= header.palette.length) {
+                    throw new IOException("Dados de terreno corrompidos na linha " + y);
+                }
+                row[x] = header.palette[index];
+            }
+            storage.setRow(y, 0, header.width, row, 0);
+        }
+    }
+    
+    /**
+     * Indica se os primeiros bytes de um arquivo são a assinatura do formato
+     * @param start Primeiros bytes do arquivo
+     * @param length Número de bytes válidos
+     */
+    public static boolean isBinaryMap(byte[] start, int length) {
+        return length >= 4
+                && ((start[0] & 0xFF) << 24 | (start[1] & 0xFF) << 16 | (start[2] & 0xFF) << 8 | (start[3] & 0xFF)) == MAGIC;
+    }
+    
+    private static int writeVarInt(byte[] out, int offset, int value) {
+        while ((value & ~0x7F) != 0) {
+            out[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[offset++] = (byte) value;
+        return offset;
+    }
+    
+    private static int readVarInt(InputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Mapa truncado");
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Comprimento de sequência inválido");
+    }
+}
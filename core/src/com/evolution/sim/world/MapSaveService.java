@@ -0,0 +1,231 @@
+package com.evolution.sim.world;
+
+import com.badlogic.gdx.Gdx;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Salva mapas em segundo plano, para que a thread de renderização nunca espere pelo disco.
+ *
+ * requestSave() só tira um instantâneo do terreno (TerrainStorage.snapshot()) e
+ * volta; a escrita acontece em uma única thread. Pedidos para o mesmo arquivo que
+ * chegam antes da escrita começar são combinados, e só o mais recente é gravado.
+ *
+ * Cada arquivo é escrito primeiro em "<nome>.tmp", sincronizado com o disco e então
+ * renomeado sobre o destino, então uma falha no meio da escrita deixa o mapa
+ * anterior intacto. Mapas mapeados em memória salvos no próprio arquivo são
+ * apenas sincronizados (MappedTerrainStorage.flush()). Cada instantâneo é liberado
+ * (TerrainStorage.release()) depois de gravado ou de ser substituído por um mais recente.
+ */
+public class MapSaveService {
+    private static final String TEMP_SUFFIX = ".tmp";
+    
+    private final ExecutorService executor;
+    
+    // Último pedido ainda não gravado de cada arquivo
+    private final ConcurrentHashMap<Path, SaveJob> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    
+    // Impede duas gravações ao mesmo tempo (usam o mesmo arquivo temporário)
+    private final Object writeLock = new Object();
+    
+    private volatile boolean compress = true;
+    
+    /**
+     * Pedido de gravação: um instantâneo a escrever ou um arquivo mapeado a sincronizar
+     */
+    private static final class SaveJob {
+        final TerrainStorage snapshot;
+        final MappedTerrainStorage mapped;
+        final String name;
+        
+        SaveJob(TerrainStorage snapshot, MappedTerrainStorage mapped, String name) {
+            this.snapshot = snapshot;
+            this.mapped = mapped;
+            this.name = name;
+        }
+    }
+    
+    public MapSaveService() {
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "map-save");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Agenda a gravação do mapa em um arquivo local (ver Gdx.files.local)
+     * @param map Mapa a salvar
+     * @param filename Nome do arquivo
+     */
+    public void requestSave(WorldMap map, String filename) {
+        requestSave(map, Gdx.files.local(filename).file().toPath());
+    }
+    
+    /**
+     * Agenda a gravação do mapa. Deve ser chamado na thread que altera o mapa,
+     * já que o instantâneo é tirado aqui; alterações posteriores não entram nesta gravação.
+     * @param map Mapa a salvar
+     * @param target Arquivo de destino
+     */
+    public void requestSave(WorldMap map, Path target) {
+        Path path = target.toAbsolutePath();
+        TerrainStorage storage = map.getStorage();
+        
+        SaveJob job = map.isMappedFrom(path)
+                ? new SaveJob(null, (MappedTerrainStorage) storage, target.toString())
+                : new SaveJob(storage.snapshot(), null, target.toString());
+        
+        // O pedido substituído não será mais gravado
+        SaveJob previous = pending.put(path, job);
+        if (previous != null && previous.snapshot != null) {
+            previous.snapshot.release();
+        }
+        schedule();
+    }
+    
+    private void schedule() {
+        if (!scheduled.compareAndSet(false, true)) return;
+        
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // Serviço encerrado: gravar na própria thread para não perder o pedido
+            drain();
+        }
+    }
+    
+    /**
+     * Grava os pedidos pendentes até não sobrar nenhum
+     */
+    private void drain() {
+        do {
+            try {
+                Iterator<Map.Entry<Path, SaveJob>> entries = pending.entrySet().iterator();
+                while (entries.hasNext()) {
+                    Map.Entry<Path, SaveJob> entry = entries.next();
+                    
+                    // Só grava se o pedido não foi trocado por um mais recente neste meio tempo
+                    if (pending.remove(entry.getKey(), entry.getValue())) {
+                        save(entry.getKey(), entry.getValue());
+                    }
+                }
+            } finally {
+                scheduled.set(false);
+            }
+            
+            // Um pedido feito depois da varredura e antes de liberar a flag ficaria sem dono
+        } while (!pending.isEmpty() && scheduled.compareAndSet(false, true));
+    }
+    
+    private void save(Path target, SaveJob job) {
+        try {
+            synchronized (writeLock) {
+                if (job.mapped != null) {
+                    job.mapped.flush();
+                } else {
+                    write(job.snapshot, target, compress);
+                }
+            }
+            Gdx.app.log("MapSaveService", "Mapa salvo em " + job.name);
+        } catch (Exception e) {
+            Gdx.app.error("MapSaveService", "Erro ao salvar o mapa em " + job.name + ": " + e.getMessage());
+        } finally {
+            if (job.snapshot != null) {
+                job.snapshot.release();
+            }
+        }
+    }
+    
+    /**
+     * Escreve o terreno em um arquivo temporário e o renomeia sobre o destino
+     */
+    static void write(TerrainStorage terrain, Path target, boolean compress) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        
+        try {
+            try (FileChannel channel = FileChannel.open(temp,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                MapFormat.write(terrain, channel, compress);
+                channel.force(true);
+            }
+            
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+    
+    /**
+     * Espera a gravação dos pedidos feitos até agora (ex.: antes de ler o arquivo)
+     * @param timeoutMillis Tempo máximo de espera
+     * @return true se não restou nenhum pedido anterior pendente
+     */
+    public boolean awaitIdle(long timeoutMillis) {
+        try {
+            // A thread de gravação é única, então uma tarefa vazia só roda depois das anteriores
+            executor.submit(() -> { }).get(timeoutMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return pending.isEmpty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Termina as gravações pendentes e encerra a thread.
+     * Pedidos feitos depois disso são gravados na thread de quem os fez.
+     * @param timeoutMillis Tempo máximo de espera pelas gravações
+     * @return true se todas as gravações terminaram
+     */
+    public boolean shutdown(long timeoutMillis) {
+        executor.shutdown();
+        try {
+            return executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    /**
+     * Define se os mapas são gravados com o corpo comprimido (padrão: sim)
+     */
+    public void setCompress(boolean compress) {
+        this.compress = compress;
+    }
+    
+    public boolean isCompress() {
+        return compress;
+    }
+    
+    public int getPendingCount() {
+        return pending.size();
+    }
+}
@@ -0,0 +1,395 @@
+package com.evolution.sim.world;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Terreno lido diretamente de um arquivo de mapa no formato bruto
+ * (MapFormat.FLAG_RAW), mapeado em memória com FileChannel.map.
+ * Abrir o mapa não lê os tiles: o sistema operacional carrega as páginas
+ * conforme são acessadas, e as alterações são escritas no próprio arquivo.
+ *
+ * Um MappedByteBuffer cobre no máximo 2 GB, então o arquivo é mapeado em
+ * segmentos de SEGMENT_SIZE bytes. O mapeamento continua válido depois que
+ * o canal é fechado e é liberado pelo coletor de lixo.
+ *
+ * Os instantâneos (snapshot()) não copiam o arquivo: antes de alterar um bloco
+ * de BLOCK_SIZE x BLOCK_SIZE tiles que um instantâneo aberto ainda não guardou,
+ * o conteúdo original do bloco é copiado para ele. O instantâneo lê esses blocos
+ * da cópia e os demais do próprio mapeamento, até ser liberado com release().
+ */
+public class MappedTerrainStorage implements TerrainStorage {
+    // Tamanho de cada segmento mapeado (potência de 2)
+    static final int SEGMENT_SHIFT = 30;
+    static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+    private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+    
+    // Blocos preservados pelos instantâneos antes de serem alterados
+    static final int BLOCK_SHIFT = 6;
+    static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+    
+    private final Path path;
+    private final int width;
+    private final int height;
+    private final boolean writable;
+    private final MappedByteBuffer[] segments;
+    private final int blocksX;
+    
+    // Instantâneos ainda não liberados
+    private final CopyOnWriteArrayList<Snapshot> snapshots = new CopyOnWriteArrayList<>();
+    
+    // Conversão entre os índices da paleta do arquivo e os ordinais atuais
+    private final byte[] toOrdinal = new byte[256];
+    private final byte[] toFile;
+    
+    private MappedTerrainStorage(Path path, MapFormat.Header header, boolean writable, MappedByteBuffer[] segments) {
+        this.path = path;
+        this.width = header.width;
+        this.height = header.height;
+        this.writable = writable;
+        this.segments = segments;
+        this.blocksX = (width + BLOCK_MASK) >> BLOCK_SHIFT;
+        
+        this.toFile = new byte[TerrainType.values().length];
+        Arrays.fill(toFile, (byte) -1);
+        for (int index = 0; index < header.palette.length; index++) {
+            toOrdinal[index] = header.palette[index];
+            toFile[header.palette[index]] = (byte) index;
+        }
+    }
+    
+    /**
+     * Mapeia um arquivo de mapa em formato bruto
+     * @param path Arquivo gravado com MapFormat.writeRaw
+     * @param writable Abrir para escrita (as alterações vão direto para o arquivo)
+     * @return Armazenamento mapeado
+     * @throws IOException Se o arquivo não puder ser aberto ou não estiver no formato bruto
+     */
+    public static MappedTerrainStorage open(Path path, boolean writable) throws IOException {
+        StandardOpenOption[] options = writable
+                ? new StandardOpenOption[] { StandardOpenOption.READ, StandardOpenOption.WRITE }
+                : new StandardOpenOption[] { StandardOpenOption.READ };
+        
+        try (FileChannel channel = FileChannel.open(path, options)) {
+            MapFormat.Header header = MapFormat.readHeader(channel);
+            if (!header.isRaw()) {
+                throw new IOException("O mapa não está no formato bruto: " + path);
+            }
+            
+            long tiles = header.getTileCount();
+            if (channel.size() < header.dataOffset + tiles) {
+                throw new IOException("Mapa truncado: " + path);
+            }
+            
+            FileChannel.MapMode mode = writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((tiles + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = (long) i << SEGMENT_SHIFT;
+                segments[i] = channel.map(mode, header.dataOffset + start, Math.min(SEGMENT_SIZE, tiles - start));
+            }
+            return new MappedTerrainStorage(path, header, writable, segments);
+        }
+    }
+    
+    /**
+     * Cria um mapa bruto em um arquivo temporário (apagado ao sair da JVM) e o
+     * mapeia para escrita. Usado ao ler mapas comprimidos grandes demais para a memória.
+     * @param width Largura em tiles
+     * @param height Altura em tiles
+     * @return Armazenamento mapeado, com todos os tiles no primeiro terreno da enum
+     */
+    static MappedTerrainStorage createTemporary(int width, int height) throws IOException {
+        Path path = Files.createTempFile("mapa", ".map");
+        path.toFile().deleteOnExit();
+        
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            MapFormat.writeHeader(Channels.newOutputStream(channel), MapFormat.FLAG_RAW, width, height);
+            
+            // Estender o arquivo até o fim do corpo sem escrever os tiles
+            long end = channel.position() + (long) width * height;
+            channel.write(ByteBuffer.allocate(1), end - 1);
+        }
+        return open(path, true);
+    }
+    
+    @Override
+    public byte get(int x, int y) {
+        long index = (long) y * width + x;
+        return toOrdinal[segments[(int) (index >>> SEGMENT_SHIFT)].get((int) (index & SEGMENT_MASK)) & 0xFF];
+    }
+    
+    @Override
+    public void set(int x, int y, byte ordinal) {
+        checkWritable();
+        byte value = fileIndex(ordinal);
+        if (!snapshots.isEmpty()) {
+            preserve(x, x, y, y);
+        }
+        
+        long index = (long) y * width + x;
+        segments[(int) (index >>> SEGMENT_SHIFT)].put((int) (index & SEGMENT_MASK), value);
+    }
+    
+    @Override
+    public void fill(byte ordinal) {
+        checkWritable();
+        byte[] block = new byte[64 * 1024];
+        Arrays.fill(block, fileIndex(ordinal));
+        if (!snapshots.isEmpty()) {
+            // Com um instantâneo aberto, todo o mapa é copiado para ele
+            preserve(0, width - 1, 0, height - 1);
+        }
+        
+        for (MappedByteBuffer segment : segments) {
+            ByteBuffer view = segment.duplicate();
+            view.clear();
+            while (view.hasRemaining()) {
+                view.put(block, 0, Math.min(block.length, view.remaining()));
+            }
+        }
+    }
+    
+    @Override
+    public void getRow(int y, int fromX, int count, byte[] out, int offset) {
+        readFileRow(y, fromX, count, out, offset);
+        for (int i = offset; i < offset + count; i++) {
+            out[i] = toOrdinal[out[i] & 0xFF];
+        }
+    }
+    
+    /**
+     * Copia um trecho de uma linha como está no arquivo (índices da paleta do arquivo)
+     */
+    private void readFileRow(int y, int fromX, int count, byte[] out, int offset) {
+        long index = (long) y * width + fromX;
+        int copied = 0;
+        
+        // Uma linha pode atravessar o limite entre dois segmentos
+        while (copied < count) {
+            ByteBuffer view = segments[(int) (index >>> SEGMENT_SHIFT)].duplicate();
+            int position = (int) (index & SEGMENT_MASK);
+            int length = Math.min(count - copied, view.capacity() - position);
+            view.position(position);
+            view.get(out, offset + copied, length);
+            copied += length;
+            index += length;
+        }
+    }
+    
+    @Override
+    public void setRow(int y, int fromX, int count, byte[] in, int offset) {
+        checkWritable();
+        if (count <= 0) return;
+        if (!snapshots.isEmpty()) {
+            preserve(fromX, fromX + count - 1, y, y);
+        }
+        long index = (long) y * width + fromX;
+        
+        for (int i = 0; i < count; i++, index++) {
+            segments[(int) (index >>> SEGMENT_SHIFT)].put((int) (index & SEGMENT_MASK), fileIndex(in[offset + i]));
+        }
+    }
+    
+    /**
+     * O arquivo não é copiado: os blocos só são copiados para o instantâneo
+     * quando forem alterados, até que ele seja liberado com release()
+     */
+    @Override
+    public TerrainStorage snapshot() {
+        Snapshot snapshot = new Snapshot();
+        snapshots.add(snapshot);
+        return snapshot;
+    }
+    
+    /**
+     * Copia para os instantâneos abertos os blocos de um retângulo que eles ainda não guardaram
+     * @param fromX Primeira coluna
+     * @param toX Última coluna (inclusive)
+     * @param fromY Primeira linha
+     * @param toY Última linha (inclusive)
+     */
+    private void preserve(int fromX, int toX, int fromY, int toY) {
+        for (Snapshot snapshot : snapshots) {
+            for (int blockY = fromY >> BLOCK_SHIFT; blockY <= toY >> BLOCK_SHIFT; blockY++) {
+                for (int blockX = fromX >> BLOCK_SHIFT; blockX <= toX >> BLOCK_SHIFT; blockX++) {
+                    snapshot.capture(blockX, blockY);
+                }
+            }
+        }
+    }
+    
+    private long blockIndex(int blockX, int blockY) {
+        return (long) blockY * blocksX + blockX;
+    }
+    
+    /**
+     * Terreno do arquivo no momento em que foi criado: blocos alterados depois disso
+     * são lidos da cópia original, os demais do mapeamento.
+     *
+     * capture() roda na thread que altera o mapa, sempre antes de o bloco ser escrito,
+     * e as leituras acontecem em outra thread. As duas sincronizam no instantâneo para
+     * que uma leitura nunca veja um bloco já alterado sem ver também a sua cópia.
+     */
+    private final class Snapshot implements TerrainStorage {
+        // Conteúdo original (índices da paleta do arquivo) dos blocos alterados, BLOCK_SIZE tiles por linha
+        private final ConcurrentHashMap<Long, byte[]> overlay = new ConcurrentHashMap<>();
+        private volatile boolean released;
+        
+        /**
+         * Guarda o conteúdo atual de um bloco, se ainda não foi guardado
+         */
+        void capture(int blockX, int blockY) {
+            long block = blockIndex(blockX, blockY);
+            if (overlay.containsKey(block)) return;
+            
+            int fromX = blockX << BLOCK_SHIFT;
+            int fromY = blockY << BLOCK_SHIFT;
+            int columns = Math.min(BLOCK_SIZE, width - fromX);
+            int rows = Math.min(BLOCK_SIZE, height - fromY);
+            byte[] tiles = new byte[BLOCK_SIZE * BLOCK_SIZE];
+            
+            synchronized (this) {
+                if (released) return;
+                for (int row = 0; row < rows; row++) {
+                    readFileRow(fromY + row, fromX, columns, tiles, row * BLOCK_SIZE);
+                }
+                overlay.put(block, tiles);
+            }
+        }
+        
+        @Override
+        public byte get(int x, int y) {
+            byte[] tile = new byte[1];
+            getRow(y, x, 1, tile, 0);
+            return tile[0];
+        }
+        
+        @Override
+        public synchronized void getRow(int y, int fromX, int count, byte[] out, int offset) {
+            readFileRow(y, fromX, count, out, offset);
+            
+            // Substituir os trechos de blocos alterados depois do instantâneo
+            if (!overlay.isEmpty()) {
+                int blockY = y >> BLOCK_SHIFT;
+                int rowStart = (y & BLOCK_MASK) * BLOCK_SIZE;
+                int x = fromX;
+                int end = fromX + count;
+                while (x < end) {
+                    int blockX = x >> BLOCK_SHIFT;
+                    int length = Math.min(end - x, ((blockX + 1) << BLOCK_SHIFT) - x);
+                    byte[] tiles = overlay.get(blockIndex(blockX, blockY));
+                    if (tiles != null) {
+                        System.arraycopy(tiles, rowStart + (x & BLOCK_MASK), out, offset + x - fromX, length);
+                    }
+                    x += length;
+                }
+            }
+            
+            for (int i = offset; i < offset + count; i++) {
+                out[i] = toOrdinal[out[i] & 0xFF];
+            }
+        }
+        
+        @Override
+        public void set(int x, int y, byte ordinal) {
+            throw new IllegalStateException("Instantâneo somente leitura: " + path);
+        }
+        
+        @Override
+        public void fill(byte ordinal) {
+            throw new IllegalStateException("Instantâneo somente leitura: " + path);
+        }
+        
+        @Override
+        public void setRow(int y, int fromX, int count, byte[] in, int offset) {
+            throw new IllegalStateException("Instantâneo somente leitura: " + path);
+        }
+        
+        /**
+         * Deve ser chamado na thread que altera o mapa, como o snapshot() do mapa
+         */
+        @Override
+        public TerrainStorage snapshot() {
+            Snapshot copy = new Snapshot();
+            copy.overlay.putAll(overlay);
+            snapshots.add(copy);
+            return copy;
+        }
+        
+        @Override
+        public void release() {
+            released = true;
+            snapshots.remove(this);
+            synchronized (this) {
+                overlay.clear();
+            }
+        }
+        
+        @Override
+        public int getWidth() {
+            return width;
+        }
+        
+        @Override
+        public int getHeight() {
+            return height;
+        }
+    }
+    
+    /**
+     * Força a escrita no disco das alterações feitas nos tiles
+     */
+    public void flush() {
+        if (!writable) return;
+        
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+    
+    /**
+     * Um mapeamento somente leitura lançaria ReadOnlyBufferException no meio da escrita
+     */
+    private void checkWritable() {
+        if (!writable) {
+            throw new IllegalStateException("Mapa aberto somente para leitura: " + path);
+        }
+    }
+    
+    private byte fileIndex(byte ordinal) {
+        byte index = toFile[ordinal];
+        if (index < 0) {
+            throw new IllegalArgumentException("Terreno ausente da paleta do arquivo: " + TerrainType.fromOrdinal(ordinal));
+        }
+        return index;
+    }
+    
+    // Getters
+    public Path getPath() {
+        return path;
+    }
+    
+    public boolean isWritable() {
+        return writable;
+    }
+    
+    @Override
+    public int getWidth() {
+        return width;
+    }
+    
+    @Override
+    public int getHeight() {
+        return height;
+    }
+}
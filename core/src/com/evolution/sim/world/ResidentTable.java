@@ -0,0 +1,152 @@
+package com.evolution.sim.world;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Tabela das entradas em memória (chunks, regiões) indexadas por um índice linear,
+ * com leitura sem lock e descarte pelo algoritmo do relógio, uma aproximação do LRU.
+ *
+ * get() pode ser chamado de qualquer thread sem sincronização: as entradas são
+ * publicadas em AtomicReferenceArray, então quem as lê as vê já preenchidas.
+ * put(), remove(), clear() e a iteração devem ser feitos com o lock do dono.
+ * As páginas de índices são criadas conforme são usadas, então a tabela não
+ * ocupa memória proporcional ao mapa inteiro.
+ */
+final class ResidentTable<T extends ResidentTable.Entry> {
+    private static final int PAGE_SHIFT = 10;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    
+    private final int pageCount;
+    private volatile AtomicReferenceArray<AtomicReferenceArray<T>> pages;
+    
+    // Entradas em memória, percorridas pelo ponteiro do relógio
+    private final Entry[] ring;
+    private int size;
+    private int hand;
+    
+    /**
+     * Entrada da tabela
+     */
+    static class Entry {
+        final long index;
+        
+        // Lida desde a última passagem do ponteiro do relógio
+        volatile boolean referenced = true;
+        
+        Entry(long index) {
+            this.index = index;
+        }
+    }
+    
+    /**
+     * @param capacity Número de índices possíveis
+     * @param maxEntries Número máximo de entradas em memória (pelo menos 1)
+     */
+    ResidentTable(long capacity, int maxEntries) {
+        long count = (capacity + PAGE_SIZE - 1) >>> PAGE_SHIFT;
+        if (count > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Tabela grande demais: " + capacity);
+        }
+        this.pageCount = (int) count;
+        this.pages = new AtomicReferenceArray<>(pageCount);
+        this.ring = new Entry[maxEntries];
+    }
+    
+    /**
+     * Obtém a entrada de um índice, sem lock
+     * @return Entrada ou null se não estiver em memória
+     */
+    T get(long index) {
+        AtomicReferenceArray<T> page = pages.get((int) (index >>> PAGE_SHIFT));
+        if (page == null) return null;
+        
+        T entry = page.get((int) (index & PAGE_MASK));
+        if (entry != null && !entry.referenced) {
+            // Só escrever quando muda, para não disputar a linha de cache entre threads
+            entry.referenced = true;
+        }
+        return entry;
+    }
+    
+    /**
+     * Publica uma entrada, descartando outra se a tabela estiver cheia
+     * @return Entrada descartada ou null
+     */
+    @SuppressWarnings("unchecked")
+    T put(T entry) {
+        T evicted = null;
+        
+        if (size < ring.length) {
+            ring[size++] = entry;
+        } else {
+            // Dar uma segunda chance às entradas lidas; após duas voltas, descartar a atual
+            for (int step = 0; step < 2 * size && ring[hand].referenced; step++) {
+                ring[hand].referenced = false;
+                hand = (hand + 1) % size;
+            }
+            evicted = (T) ring[hand];
+            store(evicted.index, null);
+            ring[hand] = entry;
+            hand = (hand + 1) % size;
+        }
+        store(entry.index, entry);
+        return evicted;
+    }
+    
+    /**
+     * Retira uma entrada da tabela
+     * @return Entrada retirada ou null se não estava em memória
+     */
+    @SuppressWarnings("unchecked")
+    T remove(long index) {
+        for (int i = 0; i < size; i++) {
+            if (ring[i].index != index) continue;
+            
+            T removed = (T) ring[i];
+            ring[i] = ring[--size];
+            ring[size] = null;
+            if (hand >= size) {
+                hand = 0;
+            }
+            store(index, null);
+            return removed;
+        }
+        return null;
+    }
+    
+    /**
+     * Retira todas as entradas
+     */
+    void clear() {
+        pages = new AtomicReferenceArray<>(pageCount);
+        Arrays.fill(ring, 0, size, null);
+        size = 0;
+        hand = 0;
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    @SuppressWarnings("unchecked")
+    T entryAt(int i) {
+        return (T) ring[i];
+    }
+    
+    int capacity() {
+        return ring.length;
+    }
+    
+    private void store(long index, T entry) {
+        int pageIndex = (int) (index >>> PAGE_SHIFT);
+        AtomicReferenceArray<T> page = pages.get(pageIndex);
+        if (page == null) {
+            if (entry == null) return;
+            page = new AtomicReferenceArray<>(PAGE_SIZE);
+            pages.set(pageIndex, page);
+        }
+        page.set((int) (index & PAGE_MASK), entry);
+    }
+}
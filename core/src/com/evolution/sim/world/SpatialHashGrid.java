@@ -0,0 +1,215 @@
+package com.evolution.sim.world;
+
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Arrays;
+
+/**
+ * Grade de hash espacial uniforme para consultas de vizinhança.
+ * Os itens são identificados por índices inteiros (normalmente a posição no
+ * array do chamador) e a grade é reconstruída a cada tick com uma ordenação
+ * por contagem, sem alocar objetos depois que a capacidade se estabiliza.
+ */
+public class SpatialHashGrid {
+    // Itens inseridos desde o último begin()
+    private int[] itemIds;
+    private float[] itemX;
+    private float[] itemY;
+    private int[] itemBucket;
+    private int count;
+    
+    // Tabela de buckets (ordenação por contagem)
+    private int[] bucketStart;
+    private int[] bucketItems;
+    private int[] bucketStamp;
+    private int tableMask;
+    private int queryStamp;
+    
+    // Dimensão das células
+    private float cellSize;
+    private float inverseCellSize;
+    
+    public SpatialHashGrid() {
+        itemIds = new int[64];
+        itemX = new float[64];
+        itemY = new float[64];
+        itemBucket = new int[64];
+        bucketItems = new int[64];
+        resizeTable(16);
+        setCellSize(32f);
+    }
+    
+    /**
+     * Inicia uma nova reconstrução da grade
+     * @param cellSize Lado de cada célula em pixels
+     */
+    public void begin(float cellSize) {
+        setCellSize(cellSize);
+        count = 0;
+    }
+    
+    /**
+     * Insere um item na grade (válido após build())
+     * @param id Identificador do item
+     * @param x Posição x em pixels
+     * @param y Posição y em pixels
+     */
+    public void insert(int id, float x, float y) {
+        if (count == itemIds.length) {
+            int newCapacity = count * 2;
+            itemIds = Arrays.copyOf(itemIds, newCapacity);
+            itemX = Arrays.copyOf(itemX, newCapacity);
+            itemY = Arrays.copyOf(itemY, newCapacity);
+            itemBucket = Arrays.copyOf(itemBucket, newCapacity);
+        }
+        itemIds[count] = id;
+        itemX[count] = x;
+        itemY[count] = y;
+        count++;
+    }
+    
+    /**
+     * Distribui os itens inseridos pelos buckets
+     */
+    public void build() {
+        // Manter a tabela com pelo menos o dobro de buckets em relação aos itens
+        int tableSize = tableMask + 1;
+        if (tableSize < count * 2) {
+            while (tableSize < count * 2) {
+                tableSize <<= 1;
+            }
+            resizeTable(tableSize);
+        }
+        if (bucketItems.length < count) {
+            bucketItems = new int[itemIds.length];
+        }
+        
+        // Contar itens por bucket
+        Arrays.fill(bucketStart, 0);
+        for (int i = 0; i < count; i++) {
+            int bucket = bucketOf(cellCoord(itemX[i]), cellCoord(itemY[i]));
+            itemBucket[i] = bucket;
+            bucketStart[bucket + 1]++;
+        }
+        
+        // Soma prefixa para obter o início de cada bucket
+        for (int b = 0; b < tableSize; b++) {
+            bucketStart[b + 1] += bucketStart[b];
+        }
+        
+        // Espalhar os itens usando bucketStamp como cursor temporário
+        System.arraycopy(bucketStart, 0, bucketStamp, 0, tableSize);
+        for (int i = 0; i < count; i++) {
+            bucketItems[bucketStamp[itemBucket[i]]++] = i;
+        }
+        Arrays.fill(bucketStamp, 0);
+        queryStamp = 0;
+    }
+    
+    /**
+     * Coleta os itens das células que intersectam um quadrado ao redor de um ponto.
+     * O resultado pode conter itens fora do raio (falsos positivos), e o chamador
+     * deve fazer o teste de distância exato.
+     * @param x Centro x em pixels
+     * @param y Centro y em pixels
+     * @param radius Raio de busca em pixels
+     * @param out Lista onde os ids encontrados são adicionados
+     */
+    public void query(float x, float y, float radius, IntArray out) {
+        int minCellX = cellCoord(x - radius);
+        int maxCellX = cellCoord(x + radius);
+        int minCellY = cellCoord(y - radius);
+        int maxCellY = cellCoord(y + radius);
+        
+        // Carimbo para não visitar o mesmo bucket duas vezes (colisões de hash)
+        queryStamp++;
+        if (queryStamp == Integer.MAX_VALUE) {
+            Arrays.fill(bucketStamp, 0);
+            queryStamp = 1;
+        }
+        
+        long cellCount = (long) (maxCellX - minCellX + 1) * (maxCellY - minCellY + 1);
+        if (cellCount > tableMask + 1) {
+            // Área maior que a tabela: mais barato percorrer todos os buckets
+            for (int bucket = 0; bucket <= tableMask; bucket++) {
+                collectBucket(bucket, out);
+            }
+            return;
+        }
+        
+        for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+            for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                int bucket = bucketOf(cellX, cellY);
+                if (bucketStamp[bucket] != queryStamp) {
+                    bucketStamp[bucket] = queryStamp;
+                    collectBucket(bucket, out);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Variante somente leitura de query(), segura para chamadas concorrentes
+     * depois de build(). Não descarta buckets repetidos por colisão de hash,
+     * então o mesmo id pode aparecer mais de uma vez no resultado.
+     * @param x Centro x em pixels
+     * @param y Centro y em pixels
+     * @param radius Raio de busca em pixels
+     * @param out Lista onde os ids encontrados são adicionados
+     */
+    public void queryConcurrent(float x, float y, float radius, IntArray out) {
+        int minCellX = cellCoord(x - radius);
+        int maxCellX = cellCoord(x + radius);
+        int minCellY = cellCoord(y - radius);
+        int maxCellY = cellCoord(y + radius);
+        
+        long cellCount = (long) (maxCellX - minCellX + 1) * (maxCellY - minCellY + 1);
+        if (cellCount > tableMask + 1) {
+            for (int bucket = 0; bucket <= tableMask; bucket++) {
+                collectBucket(bucket, out);
+            }
+            return;
+        }
+        
+        for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+            for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                collectBucket(bucketOf(cellX, cellY), out);
+            }
+        }
+    }
+    
+    private void collectBucket(int bucket, IntArray out) {
+        for (int k = bucketStart[bucket], end = bucketStart[bucket + 1]; k < end; k++) {
+            out.add(itemIds[bucketItems[k]]);
+        }
+    }
+    
+    private void resizeTable(int tableSize) {
+        tableMask = tableSize - 1;
+        bucketStart = new int[tableSize + 1];
+        bucketStamp = new int[tableSize];
+    }
+    
+    private void setCellSize(float cellSize) {
+        this.cellSize = cellSize;
+        this.inverseCellSize = 1f / cellSize;
+    }
+    
+    private int cellCoord(float value) {
+        return (int) Math.floor(value * inverseCellSize);
+    }
+    
+    private int bucketOf(int cellX, int cellY) {
+        int hash = (cellX * 73856093) ^ (cellY * 19349663);
+        return (hash ^ (hash >>> 16)) & tableMask;
+    }
+    
+    // Getters
+    public float getCellSize() {
+        return cellSize;
+    }
+    
+    public int size() {
+        return count;
+    }
+}
@@ -0,0 +1,258 @@
+package com.evolution.sim.world;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Gera terreno a partir de uma semente, com ruído gradiente fractal.
+ * Dois campos independentes, elevação e umidade, são convertidos em um bioma:
+ * água abaixo do nível do mar, areia na costa, pedra, montanha e neve nas
+ * altitudes maiores, e terra, grama ou floresta conforme a umidade.
+ *
+ * O valor de cada tile depende só da semente e da posição, então chunks podem
+ * ser gerados em qualquer ordem, em paralelo, e regenerados de forma idêntica.
+ * Por isso o gerador também serve de ChunkSource para mapas em chunks.
+ * Gerar não altera o gerador, que pode ser usado por várias threads ao mesmo tempo.
+ */
+public class TerrainGenerator implements ChunkSource {
+    // Tamanho padrão das feições maiores, em tiles
+    public static final float DEFAULT_FEATURE_SIZE = 32f;
+    
+    // Camadas de ruído somadas (cada uma com o dobro da frequência e metade da amplitude)
+    public static final int DEFAULT_OCTAVES = 5;
+    
+    // Limites de elevação dos biomas (a elevação fica entre 0 e 1, concentrada em 0,5)
+    private static final float SEA_LEVEL = 0.42f;
+    private static final float SHORE_LEVEL = 0.45f;
+    private static final float STONE_LEVEL = 0.62f;
+    private static final float MOUNTAIN_LEVEL = 0.66f;
+    private static final float SNOW_LEVEL = 0.72f;
+    
+    // Limites de umidade em terra firme
+    private static final float DRY_LEVEL = 0.42f;
+    private static final float WET_LEVEL = 0.56f;
+    
+    // Lado dos blocos gerados em fill(), igual ao dos chunks
+    private static final int BLOCK_SIZE = ChunkedTerrainStorage.CHUNK_SIZE;
+    
+    // Gradientes unitários em 8 direções
+    private static final float DIAGONAL = 0.70710678f;
+    private static final float[] GRADIENT_X = { 1f, -1f, 0f, 0f, DIAGONAL, -DIAGONAL, DIAGONAL, -DIAGONAL };
+    private static final float[] GRADIENT_Y = { 0f, 0f, 1f, -1f, DIAGONAL, DIAGONAL, -DIAGONAL, -DIAGONAL };
+    
+    private final long seed;
+    private final long elevationSeed;
+    private final long moistureSeed;
+    private final float frequency;
+    private final int octaves;
+    private final float amplitudeSum;
+    
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    
+    public TerrainGenerator(long seed) {
+        this(seed, DEFAULT_FEATURE_SIZE, DEFAULT_OCTAVES);
+    }
+    
+    /**
+     * @param seed Semente (a mesma semente gera sempre o mesmo terreno)
+     * @param featureSize Tamanho aproximado dos continentes e lagos, em tiles
+     * @param octaves Número de camadas de detalhe (pelo menos 1)
+     */
+    public TerrainGenerator(long seed, float featureSize, int octaves) {
+        if (!(featureSize > 0f) || octaves < 1) {
+            throw new IllegalArgumentException("Parâmetros de geração inválidos: " + featureSize + ", " + octaves);
+        }
+        
+        this.seed = seed;
+        this.elevationSeed = mix(seed ^ 0x5DEECE66DL);
+        this.moistureSeed = mix(seed ^ 0x2545F4914F6CDD1DL);
+        this.frequency = 1f / featureSize;
+        this.octaves = octaves;
+        
+        float sum = 0f;
+        float amplitude = 1f;
+        for (int i = 0; i < octaves; i++) {
+            sum += amplitude;
+            amplitude *= 0.5f;
+        }
+        this.amplitudeSum = sum;
+    }
+    
+    /**
+     * Gera o terreno de um tile
+     */
+    public TerrainType sample(int x, int y) {
+        return biome(fractal(elevationSeed, x, y), fractal(moistureSeed, x, y));
+    }
+    
+    /**
+     * Converte elevação e umidade (entre 0 e 1) em um tipo de terreno
+     */
+    public TerrainType biome(float elevation, float moisture) {
+        if (elevation < SEA_LEVEL) return TerrainType.WATER;
+        if (elevation < SHORE_LEVEL) return TerrainType.SAND;
+        if (elevation >= SNOW_LEVEL) return TerrainType.SNOW;
+        if (elevation >= MOUNTAIN_LEVEL) return TerrainType.MOUNTAIN;
+        if (elevation >= STONE_LEVEL) return TerrainType.STONE;
+        
+        if (moisture < DRY_LEVEL) return TerrainType.DIRT;
+        if (moisture < WET_LEVEL) return TerrainType.GRASS;
+        return TerrainType.FOREST;
+    }
+    
+    @Override
+    public void load(int chunkX, int chunkY, int chunkSize, byte[] tiles) {
+        int startX = chunkX * chunkSize;
+        int startY = chunkY * chunkSize;
+        
+        int index = 0;
+        for (int y = 0; y < chunkSize; y++) {
+            for (int x = 0; x < chunkSize; x++) {
+                tiles[index++] = (byte) sample(startX + x, startY + y).ordinal();
+            }
+        }
+    }
+    
+    /**
+     * Gera todo o terreno de um armazenamento, em blocos processados em paralelo.
+     * Mapas em chunks não precisam disso: basta usar o gerador como ChunkSource.
+     * @param storage Destino (escritas em regiões diferentes devem ser seguras entre threads)
+     */
+    public void fill(TerrainStorage storage) {
+        int blocksX = (storage.getWidth() + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        int blocksY = (storage.getHeight() + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        pool.invoke(new FillTask(storage, blocksX, 0, blocksX * blocksY));
+    }
+    
+    /**
+     * Tarefa fork-join que divide os blocos do mapa ao meio até sobrar um
+     */
+    private final class FillTask extends RecursiveAction {
+        private final TerrainStorage storage;
+        private final int blocksX;
+        private final int from;
+        private final int to;
+        
+        FillTask(TerrainStorage storage, int blocksX, int from, int to) {
+            this.storage = storage;
+            this.blocksX = blocksX;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new FillTask(storage, blocksX, from, middle), new FillTask(storage, blocksX, middle, to));
+                return;
+            }
+            if (to == from) return;
+            
+            int blockX = from % blocksX;
+            int blockY = from / blocksX;
+            byte[] tiles = new byte[BLOCK_SIZE * BLOCK_SIZE];
+            load(blockX, blockY, BLOCK_SIZE, tiles);
+            
+            // Copiar só a parte do bloco dentro do mapa
+            int startX = blockX * BLOCK_SIZE;
+            int startY = blockY * BLOCK_SIZE;
+            int columns = Math.min(BLOCK_SIZE, storage.getWidth() - startX);
+            int rows = Math.min(BLOCK_SIZE, storage.getHeight() - startY);
+            for (int y = 0; y < rows; y++) {
+                storage.setRow(startY + y, startX, columns, tiles, y * BLOCK_SIZE);
+            }
+        }
+    }
+    
+    /**
+     * Soma as camadas de ruído e normaliza o resultado para o intervalo [0, 1]
+     */
+    private float fractal(long fieldSeed, int x, int y) {
+        float px = x * frequency;
+        float py = y * frequency;
+        float total = 0f;
+        float amplitude = 1f;
+        
+        for (int octave = 0; octave < octaves; octave++) {
+            total += amplitude * noise(fieldSeed + octave * 0x9E3779B97F4A7C15L, px, py);
+            px *= 2f;
+            py *= 2f;
+            amplitude *= 0.5f;
+        }
+        
+        float value = 0.5f + 0.5f * total / amplitudeSum;
+        return value < 0f ? 0f : (value > 1f ? 1f : value);
+    }
+    
+    /**
+     * Ruído gradiente 2D: interpola as contribuições dos gradientes sorteados
+     * nos quatro cantos da célula. Resultado entre -1 e 1.
+     */
+    private static float noise(long seed, float x, float y) {
+        int cellX = floor(x);
+        int cellY = floor(y);
+        float fx = x - cellX;
+        float fy = y - cellY;
+        
+        float n00 = gradient(seed, cellX, cellY, fx, fy);
+        float n10 = gradient(seed, cellX + 1, cellY, fx - 1f, fy);
+        float n01 = gradient(seed, cellX, cellY + 1, fx, fy - 1f);
+        float n11 = gradient(seed, cellX + 1, cellY + 1, fx - 1f, fy - 1f);
+        
+        float u = fade(fx);
+        float v = fade(fy);
+        float bottom = n00 + u * (n10 - n00);
+        float top = n01 + u * (n11 - n01);
+        
+        // A soma dos gradientes unitários fica em ±√2/2; ampliar para ±1
+        return (bottom + v * (top - bottom)) * 1.41421356f;
+    }
+    
+    private static float gradient(long seed, int cellX, int cellY, float dx, float dy) {
+        int direction = (int) (mix(seed ^ (cellX * 0x9E3779B97F4A7C15L) ^ (cellY * 0xC2B2AE3D27D4EB4FL)) >>> 61);
+        return GRADIENT_X[direction] * dx + GRADIENT_Y[direction] * dy;
+    }
+    
+    private static int floor(float value) {
+        int truncated = (int) value;
+        return value < truncated ? truncated - 1 : truncated;
+    }
+    
+    /**
+     * Curva de suavização 6t^5 - 15t^4 + 10t^3
+     */
+    private static float fade(float t) {
+        return t * t * t * (t * (t * 6f - 15f) + 10f);
+    }
+    
+    /**
+     * Finalizador do SplitMix64: espalha os bits de uma chave
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+    
+    /**
+     * Define onde a geração em paralelo é executada
+     * @param pool Pool fork-join (padrão: ForkJoinPool.commonPool())
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool != null ? pool : ForkJoinPool.commonPool();
+    }
+    
+    // Getters
+    public long getSeed() {
+        return seed;
+    }
+    
+    public float getFeatureSize() {
+        return 1f / frequency;
+    }
+    
+    public int getOctaves() {
+        return octaves;
+    }
+}
@@ -0,0 +1,66 @@
+package com.evolution.sim.world;
+
+/**
+ * Armazenamento dos ordinais de terreno (TerrainType) de um WorldMap.
+ * Os acessos não verificam limites; o WorldMap faz essa verificação.
+ */
+public interface TerrainStorage {
+    /**
+     * Obtém o ordinal do terreno de um tile
+     * @param x Coluna (entre 0 e getWidth() - 1)
+     * @param y Linha (entre 0 e getHeight() - 1)
+     */
+    byte get(int x, int y);
+    
+    /**
+     * Define o ordinal do terreno de um tile
+     * @param x Coluna (entre 0 e getWidth() - 1)
+     * @param y Linha (entre 0 e getHeight() - 1)
+     * @param ordinal Ordinal do TerrainType
+     */
+    void set(int x, int y, byte ordinal);
+    
+    /**
+     * Preenche todos os tiles com o mesmo terreno
+     * @param ordinal Ordinal do TerrainType
+     */
+    void fill(byte ordinal);
+    
+    /**
+     * Copia um trecho de uma linha
+     * @param y Linha
+     * @param fromX Primeira coluna
+     * @param count Número de tiles
+     * @param out Array de destino
+     * @param offset Posição inicial no destino
+     */
+    void getRow(int y, int fromX, int count, byte[] out, int offset);
+    
+    /**
+     * Sobrescreve um trecho de uma linha
+     * @param y Linha
+     * @param fromX Primeira coluna
+     * @param count Número de tiles
+     * @param in Ordinais de terreno
+     * @param offset Posição inicial na origem
+     */
+    void setRow(int y, int fromX, int count, byte[] in, int offset);
+    
+    /**
+     * Cria uma cópia do terreno atual que não muda com alterações posteriores,
+     * para ser lida em outra thread (ex.: ao salvar em segundo plano).
+     * Deve ser chamado na thread que altera o terreno; a cópia é somente para leitura.
+     */
+    TerrainStorage snapshot();
+    
+    /**
+     * Avisa que um instantâneo não será mais lido, para que o terreno de origem
+     * deixe de preservar os tiles alterados depois dele. Não faz nada nos demais armazenamentos.
+     */
+    default void release() {
+    }
+    
+    int getWidth();
+    
+    int getHeight();
+}
@@ -13,6 +13,9 @@ public enum TerrainType {
     MOUNTAIN("mountain", 0.65f, 0.65f, 0.7f),
     SNOW("snow", 0.95f, 0.95f, 1.0f);
     
+    // Cópia de values() para converter ordinais sem alocar
+    private static final TerrainType[] VALUES = values();
+    
     private final String name;
     private final float r;
     private final float g;
@@ -25,6 +28,15 @@ public enum TerrainType {
         this.b = b;
     }
     
+    /**
+     * Obtém o terreno pelo ordinal, como guardado no WorldMap
+     * @param ordinal Ordinal do terreno
+     * @return Tipo de terreno
+     */
+    public static TerrainType fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+    
     public String getName() {
         return name;
     }
@@ -40,4 +52,11 @@ public enum TerrainType {
     public float getB() {
         return b;
     }
+    
+    /**
+     * Indica se o terreno tem plantas que as presas podem comer
+     */
+    public boolean isEdible() {
+        return this == GRASS || this == FOREST;
+    }
 }
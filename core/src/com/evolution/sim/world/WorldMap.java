@@ -5,35 +5,113 @@ import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonWriter.OutputType;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
 /**
- * Representa o mapa do mundo com sua grade de terrenos
+ * Representa o mapa do mundo com sua grade de terrenos.
+ * Cada tile guarda o ordinal do seu TerrainType em um TerrainStorage: um array
+ * de bytes linha a linha (índice = y * width + x) para mapas que cabem na memória,
+ * chunks carregados sob demanda para mapas muito grandes (ver create()) ou o
+ * próprio arquivo do mapa mapeado em memória (ver openMapped()).
  */
 public class WorldMap {
+    // Acima deste número de tiles, create() usa o armazenamento em chunks
+    public static final int DENSE_TILE_LIMIT = 2048 * 2048;
+    
     private int width;
     private int height;
-    private TerrainType[][] terrain;
+    private TerrainStorage storage;
+    
+    // Tiles do armazenamento denso (null quando o mapa é dividido em chunks)
+    private byte[] terrain;
+    
+    // Distância até a comida mais próxima, mantida junto com o terreno
+    private final FoodField foodField = new FoodField(this);
     
     /**
-     * Cria um novo mapa vazio
+     * Cria um novo mapa vazio, inteiro em memória
      */
     public WorldMap(int width, int height) {
-        this.width = width;
-        this.height = height;
-        this.terrain = new TerrainType[width][height];
+        setStorage(new DenseTerrainStorage(width, height));
         
         // Inicializar terreno padrão
         fillWith(TerrainType.GRASS);
     }
     
+    /**
+     * Cria um mapa dividido em chunks, gerados ou carregados conforme são acessados
+     * @param width Largura em tiles
+     * @param height Altura em tiles
+     * @param source Origem dos chunks
+     * @param maxResidentChunks Número máximo de chunks em memória
+     */
+    public WorldMap(int width, int height, ChunkSource source, int maxResidentChunks) {
+        setStorage(new ChunkedTerrainStorage(width, height, source, maxResidentChunks));
+    }
+    
+    private WorldMap(TerrainStorage storage) {
+        setStorage(storage);
+    }
+    
+    /**
+     * Abre um mapa salvo com saveRawFile() mapeando o arquivo em memória,
+     * sem carregar os tiles. As alterações são escritas no próprio arquivo.
+     * @param path Arquivo do mapa
+     * @param writable Permitir alterações (sem isso, alterar o terreno lança IllegalStateException)
+     * @return Mapa apoiado no arquivo
+     */
+    public static WorldMap openMapped(Path path, boolean writable) throws IOException {
+        return new WorldMap(MappedTerrainStorage.open(path, writable));
+    }
+    
+    /**
+     * Cria um mapa de grama com o armazenamento adequado ao tamanho
+     * @param width Largura em tiles
+     * @param height Altura em tiles
+     * @return Mapa denso, ou em chunks se passar de DENSE_TILE_LIMIT tiles
+     */
+    public static WorldMap create(int width, int height) {
+        if ((long) width * height <= DENSE_TILE_LIMIT) {
+            return new WorldMap(width, height);
+        }
+        return new WorldMap(width, height, ChunkSource.filled(TerrainType.GRASS), ChunkedTerrainStorage.DEFAULT_MAX_RESIDENT);
+    }
+    
+    private void setStorage(TerrainStorage storage) {
+        this.storage = storage;
+        this.width = storage.getWidth();
+        this.height = storage.getHeight();
+        this.terrain = storage instanceof DenseTerrainStorage ? ((DenseTerrainStorage) storage).getTiles() : null;
+        foodField.invalidate();
+    }
+    
     /**
      * Preenche todo o mapa com um tipo de terreno
      */
     public void fillWith(TerrainType terrainType) {
-        for (int x = 0; x < width; x++) {
-            for (int y = 0; y < height; y++) {
-                terrain[x][y] = terrainType;
-            }
+        storage.fill((byte) terrainType.ordinal());
+        foodField.invalidate();
+    }
+    
+    /**
+     * Substitui todo o terreno pelo gerado a partir de uma semente.
+     * Mapas em chunks passam a gerar cada chunk quando ele é acessado;
+     * os demais são preenchidos na hora, em paralelo.
+     */
+    public void generate(TerrainGenerator generator) {
+        if (storage instanceof ChunkedTerrainStorage) {
+            int maxResident = ((ChunkedTerrainStorage) storage).getMaxResident();
+            setStorage(new ChunkedTerrainStorage(width, height, generator, maxResident));
+            return;
         }
+        
+        generator.fill(storage);
+        foodField.invalidate();
     }
     
     /**
@@ -43,7 +121,61 @@ public class WorldMap {
         if (x < 0 || x >= width || y < 0 || y >= height) {
             return TerrainType.WATER; // Fora dos limites é água
         }
-        return terrain[x][y];
+        return getTerrainAtUnchecked(x, y);
+    }
+    
+    /**
+     * Obtém o terreno de um tile sem verificar os limites
+     * @param x Coluna (entre 0 e width - 1)
+     * @param y Linha (entre 0 e height - 1)
+     * @return Tipo de terreno
+     */
+    public TerrainType getTerrainAtUnchecked(int x, int y) {
+        return TerrainType.fromOrdinal(getTerrainOrdinal(x, y));
+    }
+    
+    /**
+     * Obtém o ordinal do terreno de um tile sem verificar os limites
+     * @param x Coluna (entre 0 e width - 1)
+     * @param y Linha (entre 0 e height - 1)
+     * @return Ordinal do TerrainType
+     */
+    public int getTerrainOrdinal(int x, int y) {
+        byte[] tiles = terrain;
+        return tiles != null ? tiles[y * width + x] : storage.get(x, y);
+    }
+    
+    /**
+     * Copia um trecho de uma linha de ordinais de terreno
+     * @param y Linha (entre 0 e height - 1)
+     * @param fromX Primeira coluna
+     * @param count Número de tiles (fromX + count não pode passar de width)
+     * @param out Array com pelo menos count posições
+     * @return O próprio array de saída
+     */
+    public byte[] getTerrainRow(int y, int fromX, int count, byte[] out) {
+        if (count > 0) {
+            storage.getRow(y, fromX, count, out, 0);
+        }
+        return out;
+    }
+    
+    /**
+     * Obtém o array de ordinais de terreno de todo o mapa, linha a linha.
+     * É o próprio armazenamento do mapa: use somente para leitura, pois
+     * escritas diretas não atualizam o campo de comida.
+     * @return Ordinais dos tiles (índice = y * width + x), ou null se o mapa for dividido em chunks
+     */
+    public byte[] getTerrainData() {
+        return terrain;
+    }
+    
+    /**
+     * Indica se o terreno está inteiro em um array na memória
+     * (falso para mapas em chunks ou mapeados de um arquivo)
+     */
+    public boolean isDense() {
+        return terrain != null;
     }
     
     /**
@@ -53,13 +185,132 @@ public class WorldMap {
         if (x < 0 || x >= width || y < 0 || y >= height) {
             return;
         }
-        terrain[x][y] = type;
+        TerrainType oldType = getTerrainAtUnchecked(x, y);
+        storage.set(x, y, (byte) type.ordinal());
+        foodField.onTerrainChanged(x, y, oldType, type);
     }
     
     /**
-     * Salva o mapa em um arquivo
+     * Salva o mapa em um arquivo no formato binário (ver MapFormat), na thread atual.
+     * Para não travar a renderização, use MapSaveService.requestSave().
      */
     public void saveToFile(String filename) {
+        FileHandle file = Gdx.files.local(filename);
+        if (isMappedFrom(file.file().toPath())) {
+            // O arquivo já é o armazenamento do mapa
+            ((MappedTerrainStorage) storage).flush();
+            return;
+        }
+        
+        try (FileChannel channel = FileChannel.open(file.file().toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MapFormat.write(this, channel, true);
+            
+            Gdx.app.log("WorldMap", "Mapa salvo em " + filename);
+        } catch (Exception e) {
+            Gdx.app.error("WorldMap", "Erro ao salvar o mapa: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Salva o mapa no formato bruto (um byte por tile), que pode ser aberto
+     * mapeado em memória por openMapped() e loadFromFile()
+     */
+    public void saveRawFile(String filename) {
+        FileHandle file = Gdx.files.local(filename);
+        if (isMappedFrom(file.file().toPath())) {
+            ((MappedTerrainStorage) storage).flush();
+            return;
+        }
+        
+        try (FileChannel channel = FileChannel.open(file.file().toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MapFormat.writeRaw(this, channel);
+            
+            Gdx.app.log("WorldMap", "Mapa salvo em " + filename);
+        } catch (Exception e) {
+            Gdx.app.error("WorldMap", "Erro ao salvar o mapa: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Indica se o terreno é o próprio arquivo, mapeado em memória
+     */
+    boolean isMappedFrom(Path path) {
+        if (!(storage instanceof MappedTerrainStorage)) {
+            return false;
+        }
+        try {
+            return Files.isSameFile(((MappedTerrainStorage) storage).getPath(), path);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Carrega o mapa de um arquivo binário; arquivos JSON antigos são importados.
+     * Arquivos em formato bruto maiores que DENSE_TILE_LIMIT são mapeados em memória.
+     * @return true se o mapa foi carregado; se não, o terreno atual é mantido
+     */
+    public boolean loadFromFile(String filename) {
+        FileHandle file = Gdx.files.local(filename);
+        if (!file.exists()) {
+            Gdx.app.log("WorldMap", "Arquivo não encontrado: " + filename);
+            return false;
+        }
+        
+        try (FileChannel channel = FileChannel.open(file.file().toPath(), StandardOpenOption.READ)) {
+            // Verificar a assinatura antes de escolher o formato
+            ByteBuffer start = ByteBuffer.allocate(4);
+            while (start.hasRemaining() && channel.read(start) >= 0) {
+                // Ler até 4 bytes
+            }
+            if (!MapFormat.isBinaryMap(start.array(), start.position())) {
+                return importJson(filename);
+            }
+            
+            channel.position(0);
+            MapFormat.Header header = MapFormat.readHeader(channel);
+            if (header.isRaw() && header.getTileCount() > DENSE_TILE_LIMIT) {
+                setStorage(MappedTerrainStorage.open(file.file().toPath(), true));
+            } else {
+                channel.position(0);
+                setStorage(MapFormat.read(channel));
+            }
+            
+            Gdx.app.log("WorldMap", "Mapa carregado de " + filename);
+            return true;
+        } catch (Exception e) {
+            Gdx.app.error("WorldMap", "Erro ao carregar o mapa: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Carrega o mapa de um arquivo binário. Se ele ainda não existir, importa o
+     * mapa salvo em JSON por versões anteriores e agenda sua gravação no arquivo
+     * binário (o arquivo JSON é mantido).
+     * @param filename Arquivo binário do mapa
+     * @param jsonFilename Arquivo JSON antigo
+     * @param saver Serviço que grava o mapa importado
+     * @return true se o mapa foi carregado ou importado; se não, o terreno atual é mantido
+     */
+    public boolean loadOrImport(String filename, String jsonFilename, MapSaveService saver) {
+        if (Gdx.files.local(filename).exists() || !Gdx.files.local(jsonFilename).exists()) {
+            return loadFromFile(filename);
+        }
+        
+        if (!importJson(jsonFilename)) {
+            return false;
+        }
+        saver.requestSave(this, filename);
+        return true;
+    }
+    
+    /**
+     * Exporta o mapa em JSON (nomes dos terrenos em uma matriz [x][y])
+     */
+    public void exportJson(String filename) {
         try {
             // Criar objeto para salvar
             MapData data = new MapData();
@@ -70,7 +321,7 @@ public class WorldMap {
             data.terrainData = new String[width][height];
             for (int x = 0; x < width; x++) {
                 for (int y = 0; y < height; y++) {
-                    data.terrainData[x][y] = terrain[x][y].name();
+                    data.terrainData[x][y] = getTerrainAtUnchecked(x, y).name();
                 }
             }
             
@@ -83,21 +334,22 @@ public class WorldMap {
             FileHandle file = Gdx.files.local(filename);
             file.writeString(jsonText, false);
             
-            Gdx.app.log("WorldMap", "Mapa salvo em " + filename);
+            Gdx.app.log("WorldMap", "Mapa exportado para " + filename);
         } catch (Exception e) {
-            Gdx.app.error("WorldMap", "Erro ao salvar o mapa: " + e.getMessage());
+            Gdx.app.error("WorldMap", "Erro ao exportar o mapa: " + e.getMessage());
         }
     }
     
     /**
-     * Carrega o mapa de um arquivo
+     * Importa um mapa exportado em JSON
+     * @return true se o mapa foi importado; se não, o terreno atual é mantido
      */
-    public void loadFromFile(String filename) {
+    public boolean importJson(String filename) {
         try {
             FileHandle file = Gdx.files.local(filename);
             if (!file.exists()) {
                 Gdx.app.error("WorldMap", "Arquivo não encontrado: " + filename);
-                return;
+                return false;
             }
             
             // Ler JSON
@@ -105,26 +357,27 @@ public class WorldMap {
             Json json = new Json();
             MapData data = json.fromJson(MapData.class, jsonText);
             
-            // Atualizar dimensões
-            this.width = data.width;
-            this.height = data.height;
-            this.terrain = new TerrainType[width][height];
+            // Atualizar dimensões (mapas em JSON ficam inteiros em memória)
+            DenseTerrainStorage loaded = new DenseTerrainStorage(data.width, data.height);
             
-            // Converter strings para enum
-            for (int x = 0; x < width; x++) {
-                for (int y = 0; y < height; y++) {
-                    this.terrain[x][y] = TerrainType.valueOf(data.terrainData[x][y]);
+            // Converter strings para ordinais
+            for (int x = 0; x < data.width; x++) {
+                for (int y = 0; y < data.height; y++) {
+                    loaded.set(x, y, (byte) TerrainType.valueOf(data.terrainData[x][y]).ordinal());
                 }
             }
+            setStorage(loaded);
             
-            Gdx.app.log("WorldMap", "Mapa carregado de " + filename);
+            Gdx.app.log("WorldMap", "Mapa importado de " + filename);
+            return true;
         } catch (Exception e) {
-            Gdx.app.error("WorldMap", "Erro ao carregar o mapa: " + e.getMessage());
+            Gdx.app.error("WorldMap", "Erro ao importar o mapa: " + e.getMessage());
+            return false;
         }
     }
     
     /**
-     * Classe auxiliar para serialização
+     * Classe auxiliar para a exportação em JSON
      */
     private static class MapData {
         public int width;
@@ -133,6 +386,14 @@ public class WorldMap {
     }
     
     // Getters
+    public TerrainStorage getStorage() {
+        return storage;
+    }
+    
+    public FoodField getFoodField() {
+        return foodField;
+    }
+    
     public int getWidth() {
         return width;
     }
@@ -3,8 +3,14 @@ package com.evolution.sim;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Application;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
 
+/**
+ * Uso: DesktopLauncher [largura do mapa] [altura do mapa]
+ */
 public class DesktopLauncher {
     public static void main(String[] arg) {
+        int mapWidth = arg.length > 0 ? Integer.parseInt(arg[0]) : EvolutionSim.DEFAULT_MAP_SIZE;
+        int mapHeight = arg.length > 1 ? Integer.parseInt(arg[1]) : EvolutionSim.DEFAULT_MAP_SIZE;
+        
         Lwjgl3ApplicationConfiguration config = new Lwjgl3ApplicationConfiguration();
         
         config.setTitle("Evolution Simulator");
@@ -13,6 +19,6 @@ public class DesktopLauncher {
         config.setIdleFPS(30);
         config.setResizable(true);
         
-        new Lwjgl3Application(new EvolutionSim(), config);
+        new Lwjgl3Application(new EvolutionSim(mapWidth, mapHeight), config);
     }
 }
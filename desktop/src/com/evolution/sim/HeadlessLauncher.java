@@ -0,0 +1,40 @@
+package com.evolution.sim;
+
+import com.evolution.sim.simulation.SimulationWorld;
+import com.evolution.sim.world.TerrainGenerator;
+import com.evolution.sim.world.WorldMap;
+
+/**
+ * Executa a simulação sem janela nem contexto gráfico, o mais rápido que a CPU permitir.
+ * Uso: HeadlessLauncher [ticks] [largura] [altura] [semente do terreno]
+ */
+public class HeadlessLauncher {
+    private static final float TIME_STEP = 1f / 60f;
+    private static final int REPORT_INTERVAL = 3600;
+    
+    public static void main(String[] arg) {
+        int ticks = arg.length > 0 ? Integer.parseInt(arg[0]) : 36000;
+        int width = arg.length > 1 ? Integer.parseInt(arg[1]) : 50;
+        int height = arg.length > 2 ? Integer.parseInt(arg[2]) : 50;
+        
+        WorldMap map = WorldMap.create(width, height);
+        if (arg.length > 3) {
+            map.generate(new TerrainGenerator(Long.parseLong(arg[3])));
+        }
+        
+        SimulationWorld world = new SimulationWorld(map);
+        world.setParallelUpdate(true);
+        world.populate();
+        
+        long start = System.nanoTime();
+        for (int tick = 1; tick <= ticks; tick++) {
+            world.step(TIME_STEP);
+            
+            if (tick % REPORT_INTERVAL == 0 || tick == ticks) {
+                float elapsed = (System.nanoTime() - start) / 1e9f;
+                System.out.println(String.format("tick %d (%.1fs) | Presas: %d | Predadores: %d | Canibais: %d | %.0f ticks/s",
+                        tick, elapsed, world.getPreyCount(), world.getPredatorCount(), world.getCannibalCount(), tick / elapsed));
+            }
+        }
+    }
+}